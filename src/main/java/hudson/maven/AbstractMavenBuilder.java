@@ -23,24 +23,42 @@
  */
 package hudson.maven;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.FilePath;
 import hudson.Launcher;
+import hudson.maven.MavenBuildProxy.BuildCallable;
 import hudson.maven.MavenBuild.ProxyImpl2;
 import hudson.model.BuildListener;
 import hudson.model.Executor;
 import hudson.model.Result;
+import hudson.remoting.AsyncFutureImpl;
 import hudson.remoting.Channel;
 import hudson.remoting.DelegatingCallable;
 import hudson.remoting.Future;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import jenkins.model.Jenkins;
 import jenkins.security.MasterToSlaveCallable;
@@ -81,6 +99,21 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
      * to make sure they are all completed before we finish.
      */
     protected transient /*final*/ List<Future<?>> futures;
+
+    /**
+     * Queues of reporter callbacks running off Maven's build thread, to make sure they are done before we finish.
+     */
+    protected transient /*final*/ List<ReporterQueue> reporterQueues;
+
+    /**
+     * How the proxies batched what reporters sent to the controller during this execution.
+     */
+    protected transient /*final*/ BatchStatistics batchStatistics;
+
+    /**
+     * What watching Maven costs during this execution.
+     */
+    protected transient /*final*/ MavenOverheadAction overhead;
     
     protected AbstractMavenBuilder(BuildListener listener, Collection<MavenModule> modules, List<String> goals, Map<String, String> systemProps) {
         this.listener = listener;
@@ -160,9 +193,14 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
      */
     protected void initializeAsynchronousExecutions() {
         futures = new CopyOnWriteArrayList<>();
+        reporterQueues = new CopyOnWriteArrayList<>();
+        batchStatistics = new BatchStatistics();
+        overhead = new MavenOverheadAction();
         if (this.proxies != null) {
             for(FilterImpl proxy : this.proxies.values()) {
                 proxy.setFutures(futures);
+                proxy.setBatchStatistics(batchStatistics);
+                proxy.setOverhead(overhead);
             }
         }
     }
@@ -174,6 +212,15 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
         futures.add(future);
     }
     
+    /**
+     * Creates the queue for the reporter callbacks of a module, which {@link #waitForAsynchronousExecutions()} waits for.
+     */
+    protected ReporterQueue newReporterQueue() {
+        ReporterQueue q = new ReporterQueue();
+        reporterQueues.add(q);
+        return q;
+    }
+
     /**
      * Waits until all asynchronous executions are finished.
      * 
@@ -181,6 +228,29 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
      */
     protected Result waitForAsynchronousExecutions() {
         try {
+            for (ReporterQueue q : reporterQueues) {
+                // reporters still running may execute more programs on the controller
+                try {
+                    for (Throwable t : q.drain())
+                        t.printStackTrace(listener.error(Messages.MavenBuilder_AsyncFailed()));
+                } catch (InterruptedException e) {
+                    listener.getLogger().println(Messages.MavenBuilder_Aborted());
+                    return Executor.currentExecutor().abortResult();
+                }
+            }
+
+            if (proxies != null) {
+                for (FilterImpl proxy : proxies.values()) {
+                    // reporters may have produced more after their module ended
+                    try {
+                        proxy.drain();
+                    } catch (InterruptedException e) {
+                        listener.getLogger().println(Messages.MavenBuilder_Aborted());
+                        return Executor.currentExecutor().abortResult();
+                    }
+                }
+            }
+
             boolean messageReported = false;
             
             for (Future<?> f : futures) {
@@ -203,8 +273,72 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
             return null;
         } finally {
             futures.clear();
+            reporterQueues.clear();
+        }
+    }
+
+    /**
+     * Runs reporter callbacks of one module on a separate thread, one at a time and in the order they were queued,
+     * so that Maven's build thread doesn't wait for them.
+     */
+    protected static final class ReporterQueue {
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        /**
+         * What the callbacks threw, to be reported once they're done.
+         */
+        private final List<Throwable> failures = new ArrayList<>();
+
+        /**
+         * Queues a callback, to run after all those queued before it.
+         */
+        public synchronized void submit(Runnable callback) {
+            // callbacks see the same context class loader as if they ran on the build thread
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            tail = tail.thenRunAsync(() -> {
+                Thread t = Thread.currentThread();
+                ClassLoader old = t.getContextClassLoader();
+                t.setContextClassLoader(cl);
+                try {
+                    callback.run();
+                } catch (Throwable x) {
+                    synchronized (this) {
+                        failures.add(x);
+                    }
+                } finally {
+                    t.setContextClassLoader(old);
+                }
+            }, REPORTER_THREADS);
+        }
+
+        /**
+         * Waits until all callbacks queued so far are done.
+         *
+         * @return what they threw since the last time, if anything.
+         */
+        public List<Throwable> drain() throws InterruptedException {
+            CompletableFuture<Void> f;
+            synchronized (this) {
+                f = tail;
+            }
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                // can't happen, callbacks don't throw
+            }
+            synchronized (this) {
+                List<Throwable> r = new ArrayList<>(failures);
+                failures.clear();
+                return r;
+            }
         }
     }
+
+    /**
+     * Threads of the Maven JVM running {@link ReporterQueue}s. Idle ones go away after a minute.
+     */
+    private static final ExecutorService REPORTER_THREADS = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Maven reporters"));
     
     protected boolean isDebug() {
         for(String goal : goals) {
@@ -235,35 +369,266 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
 
         private transient List<Future<?>> futures;
 
+        /**
+         * What stays the same throughout the build, so that reporters asking for it don't each make a round trip.
+         * Null when {@link #core} can't tell, in which case it is asked every time.
+         */
+        private final BuildContext context;
+
+        private transient BatchStatistics batchStatistics;
+
+        private transient MavenOverheadAction overhead;
+
+        /**
+         * Whether {@link #executeAsync(BuildCallable)} holds on to the programs until the module ends.
+         */
+        private final boolean batching = BATCH_REPORTER_RESULTS;
+
+        /**
+         * Number of pending programs that gets sent without waiting for the module to end.
+         */
+        private final int batchSize = BATCH_SIZE;
+
+        /**
+         * Milliseconds after which pending programs get sent without waiting for the module to end.
+         */
+        private final long batchWindow = BATCH_WINDOW;
+
+        /**
+         * Programs from {@link #executeAsync(BuildCallable)} not sent to the controller yet.
+         */
+        private transient List<BuildCallable<?,?>> pending;
+
+        /**
+         * When the oldest of {@link #pending} was scheduled, in {@link System#nanoTime()}.
+         */
+        private transient long pendingSince;
+
+        /**
+         * Sends {@link #pending} once its time window is over, unless it filled up and went before.
+         */
+        private transient ScheduledFuture<?> pendingTimer;
+
+        /**
+         * Completes once the controller is done with everything this proxy sent so far.
+         * The controller runs each call on a thread of its own, so a call is only sent once the one before is done,
+         * or the results of a reporter could arrive out of order.
+         */
+        private transient CompletableFuture<Void> sent;
+
         public FilterImpl(MavenBuildProxy2 core, MavenBuildInformation mavenBuildInformation) {
+            this(core, mavenBuildInformation, core instanceof MavenBuild.ProxyImpl ? ((MavenBuild.ProxyImpl) core).getContext() : null);
+        }
+
+        FilterImpl(MavenBuildProxy2 core, MavenBuildInformation mavenBuildInformation, @CheckForNull BuildContext context) {
             super(core);
             this.mavenBuildInformation = mavenBuildInformation;
+            this.context = context;
         }
 
         public FilterImpl(MavenBuildProxy2 core, MavenBuildInformation mavenBuildInformation, Channel channel) {
             super(core);
             this.mavenBuildInformation = mavenBuildInformation;
+            this.context = null;
             if (channel == null) {
                 throw new NullPointerException("channel must not be null!");
             }
             this.channel = channel;
         }
 
+        /**
+         * When {@link #batching}, the program is sent to the controller together with everything else
+         * the reporters of the module produce, when the module ends or when {@link #batchSize} programs
+         * or {@link #batchWindow} milliseconds worth of them piled up, whichever comes first.
+         * Reporters do their work in the Maven JVM and only report the outcome through here,
+         * so on a remote agent this saves a round trip over the controller link for each of them.
+         */
         @Override
         public void executeAsync(final BuildCallable<?,?> program) throws IOException {
-            futures.add(
-                    channel.callAsync(
-                            new AsyncInvoker(core,program)));
+            if (batching) {
+                boolean full;
+                synchronized (this) {
+                    if (pending == null) {
+                        pending = new ArrayList<>();
+                        pendingSince = System.nanoTime();
+                        if (batchWindow > 0)
+                            pendingTimer = BATCH_TIMER.schedule(this::flush, batchWindow, TimeUnit.MILLISECONDS);
+                    }
+                    pending.add(program);
+                    full = pending.size() >= batchSize;
+                }
+                if (full)
+                    flush();
+                return;
+            }
+            synchronized (this) {
+                enqueue(Collections.singletonList(program), System.nanoTime());
+            }
+        }
+
+        @Override
+        public <V, T extends Throwable> V execute(BuildCallable<V, T> program) throws T, IOException, InterruptedException {
+            if (overhead == null)
+                return super.execute(program);
+            long start = System.nanoTime();
+            try {
+                return super.execute(program);
+            } finally {
+                overhead.remoteCall(program, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Delivers what the module's reporters produced before the controller completes the module build,
+         * as the module build is saved and its listeners notified at that point.
+         */
+        @Override
+        public void end() {
+            try {
+                drain();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.end();
+        }
+
+        /**
+         * Sends the pending programs to the controller in one call, after everything sent before.
+         */
+        void flush() {
+            synchronized (this) {
+                // or it would send the next batch long before its window is over
+                if (pendingTimer != null) {
+                    pendingTimer.cancel(false);
+                    pendingTimer = null;
+                }
+                List<BuildCallable<?,?>> batch = pending;
+                pending = null;
+                if (batch != null && !batch.isEmpty())
+                    enqueue(batch, pendingSince);
+            }
+        }
+
+        /**
+         * Sends what's pending and waits until the controller is done with everything this proxy sent.
+         */
+        void drain() throws InterruptedException {
+            flush();
+            CompletableFuture<Void> f;
+            synchronized (this) {
+                f = sent;
+            }
+            if (f == null)
+                return;
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                // can't happen, send doesn't throw
+            }
+        }
+
+        /**
+         * Has the programs sent once the controller is done with those sent before.
+         * Must be called while holding the lock of this proxy, so that the order of the calls is the order they are sent in.
+         */
+        private void enqueue(List<BuildCallable<?,?>> programs, long since) {
+            CompletableFuture<Void> previous = sent != null ? sent : CompletableFuture.completedFuture(null);
+            sent = previous.handleAsync((v, t) -> {
+                send(programs, since);
+                return null;
+            }, REPORTER_THREADS);
+        }
+
+        /**
+         * Sends the programs and waits for the controller to be done with them.
+         * Failures are left for {@link AbstractMavenBuilder#waitForAsynchronousExecutions()} to report.
+         */
+        private void send(List<BuildCallable<?,?>> programs, long since) {
+            long start = System.nanoTime();
+            Future<?> f;
+            try {
+                f = channel.callAsync(new AsyncInvoker(core, new Batch(programs)));
+            } catch (IOException | RuntimeException e) {
+                // reported to the build log by waitForAsynchronousExecutions, like a failure on the controller
+                AsyncFutureImpl<Object> failed = new AsyncFutureImpl<>();
+                failed.set(e);
+                futures.add(failed);
+                attribute(programs, System.nanoTime() - start);
+                return;
+            }
+            futures.add(f);
+            if (batchStatistics != null)
+                batchStatistics.sent(programs.size(), start - since);
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // reported by waitForAsynchronousExecutions
+            }
+            long roundTrip = System.nanoTime() - start;
+            if (batchStatistics != null)
+                batchStatistics.completed(roundTrip);
+            attribute(programs, roundTrip);
+        }
+
+        /**
+         * Splits the round trip of a batch evenly between the programs in it, as the controller doesn't time them one by one.
+         */
+        private void attribute(List<BuildCallable<?,?>> programs, long roundTrip) {
+            if (overhead == null)
+                return;
+            for (BuildCallable<?,?> program : programs)
+                overhead.remoteCall(program, roundTrip / programs.size());
         }
 
         public MavenBuildInformation getMavenBuildInformation() {
             return mavenBuildInformation;
         }
+
+        @Override
+        public FilePath getRootDir() {
+            return context != null ? context.transferArea("build") : super.getRootDir();
+        }
+
+        @Override
+        public FilePath getProjectRootDir() {
+            return context != null ? context.transferArea("project") : super.getProjectRootDir();
+        }
+
+        @Override
+        public FilePath getModuleSetRootDir() {
+            return context != null ? context.transferArea("moduleset") : super.getModuleSetRootDir();
+        }
+
+        @Override
+        public Calendar getTimestamp() {
+            return context != null ? (Calendar) context.timestamp.clone() : super.getTimestamp();
+        }
+
+        @Override
+        public boolean isArchivingDisabled() {
+            return context != null ? context.archivingDisabled : super.isArchivingDisabled();
+        }
+
+        @Override
+        public boolean isSiteArchivingDisabled() {
+            return context != null ? context.siteArchivingDisabled : super.isSiteArchivingDisabled();
+        }
         
         public void setFutures(List<Future<?>> futures) {
             this.futures = futures;
         }
 
+        void setBatchStatistics(BatchStatistics batchStatistics) {
+            this.batchStatistics = batchStatistics;
+        }
+
+        void setOverhead(MavenOverheadAction overhead) {
+            this.overhead = overhead;
+        }
+
         public Object readResolve() {
             channel = Channel.current();
             return this;
@@ -271,5 +636,161 @@ public abstract class AbstractMavenBuilder extends MasterToSlaveCallable<Result,
 
         private static final long serialVersionUID = 1L;
     }
-    
+
+    /**
+     * The part of a {@link MavenBuildProxy} that doesn't change during the build,
+     * taken on the controller when the builder is created.
+     */
+    static final class BuildContext implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Where reporters leave files to be copied to the controller, as a path in the Maven JVM.
+         */
+        private final String transferArea;
+        private final Calendar timestamp;
+        private final boolean archivingDisabled;
+        private final boolean siteArchivingDisabled;
+
+        BuildContext(String transferArea, Calendar timestamp, boolean archivingDisabled, boolean siteArchivingDisabled) {
+            this.transferArea = transferArea;
+            this.timestamp = (Calendar) timestamp.clone();
+            this.archivingDisabled = archivingDisabled;
+            this.siteArchivingDisabled = siteArchivingDisabled;
+        }
+
+        /**
+         * Only called in the Maven JVM, which runs where the transfer area is.
+         */
+        FilePath transferArea(String child) {
+            return new FilePath(new File(transferArea)).child(child);
+        }
+    }
+
+    /**
+     * Runs several {@link BuildCallable}s on the controller in the order they were scheduled.
+     * All of them run even if one fails; the first failure is then rethrown with the others suppressed.
+     */
+    static final class Batch implements BuildCallable<Void,Throwable> {
+        private final List<BuildCallable<?,?>> programs;
+
+        Batch(List<BuildCallable<?,?>> programs) {
+            this.programs = programs;
+        }
+
+        public Void call(MavenBuild build) throws Throwable {
+            Throwable failure = null;
+            for (BuildCallable<?,?> program : programs) {
+                try {
+                    program.call(build);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    if (failure == null)
+                        failure = t;
+                    else
+                        failure.addSuppressed(t);
+                }
+            }
+            if (failure != null)
+                throw failure;
+            return null;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Counts the batches {@link FilterImpl} sends to the controller, their size and how long they take.
+     */
+    protected static final class BatchStatistics {
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong programs = new AtomicLong();
+        private final AtomicLong largest = new AtomicLong();
+        /**
+         * Total nanoseconds programs waited in a batch before it was sent, counted once per batch, from its oldest program.
+         */
+        private final AtomicLong queueTime = new AtomicLong();
+        /**
+         * Total nanoseconds from sending a batch to the controller being done with it.
+         */
+        private final AtomicLong roundTripTime = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+
+        void sent(int size, long queued) {
+            batches.incrementAndGet();
+            programs.addAndGet(size);
+            largest.accumulateAndGet(size, Math::max);
+            queueTime.addAndGet(queued);
+        }
+
+        /**
+         * Called by the proxy that sent a batch, which waits for it anyway before sending the next one.
+         */
+        void completed(long roundTrip) {
+            roundTripTime.addAndGet(roundTrip);
+            completed.incrementAndGet();
+        }
+
+        public long getBatches() {
+            return batches.get();
+        }
+
+        public long getPrograms() {
+            return programs.get();
+        }
+
+        public long getLargest() {
+            return largest.get();
+        }
+
+        /**
+         * Average milliseconds a batch waited before it was sent.
+         */
+        public long getAverageQueueTime() {
+            long n = batches.get();
+            return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(queueTime.get() / n);
+        }
+
+        /**
+         * Average milliseconds a batch took from being sent to being done on the controller.
+         */
+        public long getAverageRoundTripTime() {
+            long n = completed.get();
+            return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(roundTripTime.get() / n);
+        }
+
+        @Override
+        public String toString() {
+            return getPrograms() + " programs in " + getBatches() + " batches (largest " + getLargest() + "), waited "
+                    + getAverageQueueTime() + "ms and took " + getAverageRoundTripTime() + "ms on average";
+        }
+    }
+
+    /**
+     * Sends {@link FilterImpl#flush() pending programs} once their time window is over.
+     */
+    private static final ScheduledExecutorService BATCH_TIMER = Executors.newSingleThreadScheduledExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Maven reporter batches"));
+
+    /**
+     * Set to false to send the outcome of each reporter to the controller as soon as it's available,
+     * rather than once for each module.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static boolean BATCH_REPORTER_RESULTS = Boolean.parseBoolean(System.getProperty(AbstractMavenBuilder.class.getName() + ".batchReporterResults", "true"));
+
+    /**
+     * Number of reporter results that get sent to the controller right away, without waiting for the module to end.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static int BATCH_SIZE = Integer.getInteger(AbstractMavenBuilder.class.getName() + ".batchSize", 100);
+
+    /**
+     * Milliseconds after which reporter results get sent to the controller without waiting for the module to end.
+     * 0 means they wait until then.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static long BATCH_WINDOW = Long.getLong(AbstractMavenBuilder.class.getName() + ".batchWindow", 1000);
+
 }
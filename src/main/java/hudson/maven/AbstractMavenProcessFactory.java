@@ -16,19 +16,23 @@ import hudson.model.Executor;
 import hudson.model.JDK;
 import hudson.model.Node;
 import hudson.model.Run.RunnerAbortedException;
+import hudson.model.StreamBuildListener;
 import hudson.model.TaskListener;
+import hudson.remoting.Callable;
 import hudson.remoting.Channel;
 import hudson.remoting.Pipe;
 import hudson.remoting.RemoteInputStream;
 import hudson.remoting.RemoteOutputStream;
 import hudson.remoting.SocketInputStream;
 import hudson.remoting.SocketOutputStream;
+import hudson.remoting.VirtualChannel;
 import hudson.remoting.Which;
 import hudson.slaves.Channels;
 import hudson.tasks.Maven.MavenInstallation;
 import hudson.tasks._maven.MavenConsoleAnnotator;
 import hudson.util.ArgumentListBuilder;
 import hudson.util.StreamCopyThread;
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.model.Jenkins;
 import jenkins.security.MasterToSlaveCallable;
 import org.apache.tools.ant.Project;
@@ -52,7 +56,20 @@ import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import static hudson.Util.fixNull;
 
@@ -101,9 +118,9 @@ public abstract class AbstractMavenProcessFactory
     private final EnvVars envVars;
 
     /**
-     * Optional working directory. Because of the process reuse, we can't always guarantee
-     * that the returned Maven process has this as the working directory. But for the
-     * aggregator style build, the process reuse is disabled, so in practice this always works.
+     * Optional working directory. When this is set, {@link ProcessCache} only hands out
+     * a cached Maven process that was launched in the same directory, so the aggregator
+     * style build always gets a process running in its POM directory.
      *
      * Also, Maven is supposed to work correctly regardless of the process current directory,
      * so a good behaving maven project shouldn't rely on the current project.
@@ -112,6 +129,17 @@ public abstract class AbstractMavenProcessFactory
 
     private final String mavenOpts;
 
+    /**
+     * Node of the executor that created this factory, so that standby processes
+     * can be launched from threads that don't belong to an executor.
+     */
+    private final Node node;
+
+    /**
+     * {@link LaunchPlan} used by this factory, once it's been looked up.
+     */
+    private volatile LaunchPlan plan;
+
     AbstractMavenProcessFactory(MavenModuleSet mms, AbstractMavenBuild<?,?> build, Launcher launcher, EnvVars envVars, String mavenOpts, FilePath workDir) {
         this.build = build;
         this.mms = mms;
@@ -119,6 +147,8 @@ public abstract class AbstractMavenProcessFactory
         this.envVars = envVars;
         this.workDir = workDir;
         this.mavenOpts = mavenOpts;
+        Executor executor = Executor.currentExecutor();
+        this.node = executor!=null ? executor.getOwner().getNode() : null;
     }
 
     /**
@@ -247,13 +277,41 @@ public abstract class AbstractMavenProcessFactory
      * Starts maven process.
      */
     public ProcessCache.NewProcess newProcess(BuildListener listener, OutputStream out) throws IOException, InterruptedException {
+        return newProcess(listener, out, launcher, envVars, false);
+    }
+
+    /**
+     * Starts a maven process for {@link ProcessCache} to keep in stock.
+     * Nothing is written to the log of the build that created this factory.
+     *
+     * <p>
+     * The process may later be handed to a build of another job, so it's launched the way the node
+     * launches anything, with the environment of the node plus the JDK and Maven it runs,
+     * rather than with the launcher and variables of the build that happened to ask for it.
+     */
+    public ProcessCache.NewProcess newStandbyProcess(OutputStream out) throws IOException, InterruptedException {
+        BuildListener listener = new StreamBuildListener(out, Charset.defaultCharset());
+        Computer c = node!=null ? node.toComputer() : null;
+        if (c==null)
+            throw new IOException("No node to launch a standby Maven process on");
+        EnvVars env = c.buildEnvironment(listener);
+        JDK jdk = getJava(listener);
+        if (jdk!=null)
+            jdk.buildEnvVars(env);
+        MavenInstallation mi = getMavenInstallation(listener);
+        if (mi!=null)
+            mi.buildEnvVars(env);
+        return newProcess(listener, out, node.createLauncher(listener), env, true);
+    }
+
+    private ProcessCache.NewProcess newProcess(BuildListener listener, OutputStream out, Launcher launcher, EnvVars envVars, boolean quiet) throws IOException, InterruptedException {
         if(MavenProcessFactory.debug)
             listener.getLogger().println("Using env variables: "+ envVars);
         try {
-            //launcher.getChannel().export( type, instance )
+            LaunchPlan plan = getLaunchPlan(getMavenInstallation(listener), listener);
             Charset charset;
             try {
-                charset = Charset.forName(launcher.getChannel().call(new GetCharset()));
+                charset = Charset.forName(plan.charset);
             } catch (UnsupportedCharsetException e) {
                 // choose the bit preserving charset. not entirely sure if iso-8859-1 does that though.
                 charset = StandardCharsets.ISO_8859_1;
@@ -279,7 +337,7 @@ public abstract class AbstractMavenProcessFactory
 
             final ArgumentListBuilder cmdLine = buildMavenAgentCmdLine(listener, socket, jdk);
             String[] cmds = cmdLine.toCommandArray();
-            final Proc proc = launcher.launch().cmds(cmds).envs(envVars).stdout(mca).pwd(workDir).start();
+            final Proc proc = launcher.launch().cmds(cmds).envs(envVars).stdout(mca).pwd(workDir).quiet(quiet).start();
 
             Connection con;
             try {
@@ -294,9 +352,10 @@ public abstract class AbstractMavenProcessFactory
             }
 
             Channel ch;
+            ProcessCache.Traffic traffic = new ProcessCache.Traffic();
             try {
                 ch = Channels.forProcess("Channel to Maven " + Arrays.toString(cmds),
-                        Computer.threadPoolForRemoting, new BufferedInputStream(con.in), new BufferedOutputStream(con.out),
+                        Computer.threadPoolForRemoting, new BufferedInputStream(traffic.count(con.in)), new BufferedOutputStream(traffic.count(con.out)),
                         listener.getLogger(), proc);
                 ch.call(new ConfigureOriginalJDK(originalJdk));
             } catch (IOException x) {
@@ -313,7 +372,7 @@ public abstract class AbstractMavenProcessFactory
                                     jdk.getHome() + ".");
                             listener.error("================================================================================");
                             originalJdk = jdk;
-                            jdk = launcher.getChannel().call(new FindJavaHome());
+                            jdk = plan.javaHome;
                             continue JDK;
                         }
                     }
@@ -324,9 +383,14 @@ public abstract class AbstractMavenProcessFactory
             if (!PlexusModuleContributorFactory.all().isEmpty())
                 applyPlexusModuleContributor(ch,build);
 
-            return new NewProcess(ch,proc);
+            if (preloadReporterJars)
+                preloadReporterJars(ch, listener);
+
+            return new NewProcess(ch,proc,traffic);
             }
         } catch (IOException e) {
+            // something on the agent may have changed behind our back
+            forgetLaunchPlan();
             if(fixNull(e.getMessage()).contains("java: not found")) {
                 // diagnose issue #659
                 JDK jdk = mms.getJDK();
@@ -364,6 +428,175 @@ public abstract class AbstractMavenProcessFactory
         }
     }
 
+    /**
+     * What needs to be known about a node to launch Maven there.
+     * Gathered by {@link GetLaunchPlan} in one round trip, so that launching a process
+     * on a distant agent doesn't pay the latency of a separate call for each of these,
+     * and kept for as long as the agent stays connected.
+     */
+    static final class LaunchPlan implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        String charset;
+        String remotingJar;
+        /**
+         * Null if the factory doesn't need it.
+         */
+        @CheckForNull String classWorldsJar;
+        /**
+         * JRE the agent runs on, or null if it can't be found.
+         */
+        @CheckForNull JDK javaHome;
+        /**
+         * Digests of the jars copied to the agent root, by file name.
+         * Updated as jars are copied, so that later launches can skip checking them.
+         */
+        final Map<String,String> copiedJars = new ConcurrentHashMap<>();
+        /**
+         * Channel this plan was made over. The plan is out of date once the agent reconnects.
+         */
+        transient VirtualChannel channel;
+    }
+
+    private static final class GetLaunchPlan extends MasterToSlaveCallable<LaunchPlan,IOException> {
+        private static final long serialVersionUID = 1L;
+        private final Callable<String,IOException> classWorlds;
+        private final String root;
+        private final Collection<String> jars;
+
+        /**
+         * @param root
+         *      Remote path of the agent root that jars are copied to, or null on the controller.
+         * @param jars
+         *      File names of jars known to have been copied to {@code root}.
+         */
+        GetLaunchPlan(@CheckForNull Callable<String,IOException> classWorlds, @CheckForNull String root, Collection<String> jars) {
+            this.classWorlds = classWorlds;
+            this.root = root;
+            this.jars = jars;
+        }
+
+        public LaunchPlan call() throws IOException {
+            LaunchPlan plan = new LaunchPlan();
+            plan.charset = new GetCharset().call();
+            plan.remotingJar = new GetRemotingJar().call();
+            plan.classWorldsJar = classWorlds!=null ? classWorlds.call() : null;
+            plan.javaHome = new FindJavaHome().call();
+            if (root!=null) {
+                for (String jar : jars) {
+                    String digest = CopiedJarManifest.digest(new File(root), jar);
+                    if (digest!=null)
+                        plan.copiedJars.put(jar, digest);
+                }
+            }
+            return plan;
+        }
+    }
+
+    /**
+     * {@link LaunchPlan}s by node, Maven installation and flavor of the factory.
+     */
+    private static final Map<String,LaunchPlan> LAUNCH_PLANS = new ConcurrentHashMap<>();
+
+    private String getLaunchPlanKey(@CheckForNull MavenInstallation mvn) {
+        return getCurrentNode().getNodeName()+'\u0000'+(mvn!=null ? fixNull(mvn.getHome()) : "")+'\u0000'+getClass().getName();
+    }
+
+    /**
+     * Gets the {@link LaunchPlan} for the node and the Maven installation, asking the node only if
+     * there's none yet, or the one we have was made before the agent reconnected.
+     */
+    protected final LaunchPlan getLaunchPlan(@CheckForNull MavenInstallation mvn, TaskListener listener) throws IOException, InterruptedException {
+        LaunchPlan p = plan;
+        if (p!=null)
+            return p;
+
+        VirtualChannel channel = launcher.getChannel();
+        String key = getLaunchPlanKey(mvn);
+        p = LAUNCH_PLANS.get(key);
+        if (p==null || p.channel!=channel) {
+            Collection<String> jars = p!=null ? new ArrayList<>(p.copiedJars.keySet()) : Collections.<String>emptyList();
+            FilePath root = getCurrentNode()==Jenkins.get() ? null : getCurrentNode().getRootPath();
+            p = channel.call(new GetLaunchPlan(mvn!=null ? getClassWorldsJarLocator(mvn, listener) : null,
+                    root!=null ? root.getRemote() : null, jars));
+            p.channel = channel;
+            LAUNCH_PLANS.put(key, p);
+        }
+        plan = p;
+        return p;
+    }
+
+    private void forgetLaunchPlan() {
+        LaunchPlan p = plan;
+        if (p!=null) {
+            LAUNCH_PLANS.values().remove(p);
+            plan = null;
+        }
+    }
+
+    /**
+     * Returns the callable that finds the classworlds jar of the given Maven installation on the node,
+     * to be run as a part of {@link GetLaunchPlan}, or null if the classworlds jar isn't needed.
+     */
+    protected Callable<String,IOException> getClassWorldsJarLocator(MavenInstallation mvn, TaskListener listener) {
+        return null;
+    }
+
+    /**
+     * Returns the path of the classworlds jar on the node, as found by {@link #getClassWorldsJarLocator}.
+     */
+    protected final String getClassWorldsJar(MavenInstallation mvn, TaskListener listener) throws IOException, InterruptedException {
+        return getLaunchPlan(mvn, listener).classWorldsJar;
+    }
+
+    /**
+     * Sends the jars of the reporters and this plugin to the Maven process up front.
+     * The classes they contain are then loaded from those jars, rather than each fetched from the controller
+     * the first time it's used.
+     * Nothing is cached on the node: every new Maven process gets a copy of each whole jar, so this only pays off
+     * when a build loads a good part of them. Jenkins core is left out for that reason.
+     */
+    private void preloadReporterJars(Channel ch, BuildListener listener) throws InterruptedException {
+        for (Map.Entry<ClassLoader,Collection<Class<?>>> e : getPreloadManifest().entrySet()) {
+            try {
+                ch.preloadJar(e.getKey(), e.getValue().toArray(new Class<?>[0]));
+            } catch (IOException x) {
+                // classes will be loaded one by one as before
+                if (MavenProcessFactory.debug)
+                    x.printStackTrace(listener.error("Failed to preload " + e.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Lists the classes whose jars {@link #preloadReporterJars} sends, with one class per jar,
+     * grouped by the class loader they're loaded through on the controller.
+     * Classes that aren't loaded from a jar, as in development, are left out.
+     */
+    static Map<ClassLoader,Collection<Class<?>>> getPreloadManifest() {
+        List<Class<?>> roots = new ArrayList<>();
+        roots.add(AbstractMavenProcessFactory.class);
+        for (MavenReporterDescriptor d : MavenReporterDescriptor.all())
+            roots.add(d.clazz);
+
+        Map<ClassLoader,Map<File,Class<?>>> jars = new LinkedHashMap<>();
+        for (Class<?> c : roots) {
+            File jar;
+            try {
+                jar = Which.jarFile(c);
+            } catch (IOException | IllegalArgumentException e) {
+                continue;
+            }
+            if (jar.isFile() && c.getClassLoader() != null)
+                jars.computeIfAbsent(c.getClassLoader(), k -> new LinkedHashMap<>()).putIfAbsent(jar, c);
+        }
+
+        Map<ClassLoader,Collection<Class<?>>> manifest = new LinkedHashMap<>();
+        for (Map.Entry<ClassLoader,Map<File,Class<?>>> e : jars.entrySet())
+            manifest.put(e.getKey(), e.getValue().values());
+        return manifest;
+    }
+
     /**
      * Apply extension plexus modules to the newly launched Maven process.
      *
@@ -411,29 +644,49 @@ public abstract class AbstractMavenProcessFactory
         if(yjp)
             args.add("-agentlib:yjpagent=tracing");
 
-        args.addTokenized(getMavenOpts());
-        
-        args.add( "-cp" );
-        args.add(getMavenAgentClassPath(mvn, slaveRoot, listener));
+        String mavenOpts = getMavenOpts();
+        args.addTokenized(mavenOpts);
 
-
-        args.add(getMainClassName());
-
-        // M2_HOME
-        args.add(mvn.getHome());
+        String agentClassPath = getMavenAgentClassPath(mvn, slaveRoot, listener);
 
         // remoting.jar
-        String remotingJar = getLauncher().getChannel().call(new GetRemotingJar());
+        String remotingJar = getLaunchPlan(mvn, listener).remotingJar;
         if(remotingJar==null) {// this shouldn't be possible, but there are still reports indicating this, so adding a probe here.
             listener.error("Failed to determine the location of remoting.jar");
             throw new RunnerAbortedException();
         }
-        args.add(remotingJar);
 
         // interceptor.jar
-        args.add(getMavenInterceptorClassPath(mvn, slaveRoot, listener));
-
+        String interceptorClassPath = getMavenInterceptorClassPath(mvn, slaveRoot, listener);
         String mavenInterceptorCommonClasspath = getMavenInterceptorCommonClassPath(mvn, slaveRoot, listener);
+        String interceptorOverride = getMavenInterceptorOverride(mvn, slaveRoot, listener);
+
+        if (sharedClassArchive && jdk!=null && !usesSharedArchive(mavenOpts)) {
+            FilePath root = getCurrentNode().getRootPath();
+            if (root!=null) {
+                List<String> jars = new ArrayList<>(Arrays.asList(agentClassPath.split(Pattern.quote(launcher.isUnix() ? ":" : ";"))));
+                jars.add(remotingJar);
+                jars.add(interceptorClassPath);
+                if (mavenInterceptorCommonClasspath!=null)
+                    jars.add(mavenInterceptorCommonClasspath);
+                if (interceptorOverride!=null)
+                    jars.add(interceptorOverride);
+                args.add(root.child(SharedClassArchive.DIR_NAME).act(new SharedClassArchive(jdk.getHome(), mvn.getHome(), jars)));
+            }
+        }
+
+        args.add( "-cp" );
+        args.add(agentClassPath);
+
+
+        args.add(getMainClassName());
+
+        // M2_HOME
+        args.add(mvn.getHome());
+
+        args.add(remotingJar);
+
+        args.add(interceptorClassPath);
 
         if (mavenInterceptorCommonClasspath!=null){
             args.add( mavenInterceptorCommonClasspath );
@@ -442,7 +695,6 @@ public abstract class AbstractMavenProcessFactory
         // TCP/IP socket to establish the remoting infrastructure
         args.add(tcpSocket);
         
-        String interceptorOverride = getMavenInterceptorOverride(mvn, slaveRoot, listener);
         if (interceptorOverride!=null) {
             args.add(interceptorOverride);
         }
@@ -450,6 +702,147 @@ public abstract class AbstractMavenProcessFactory
         return args;
     }
 
+    private static boolean usesSharedArchive(@CheckForNull String mavenOpts) {
+        return mavenOpts!=null && (mavenOpts.contains("-Xshare") || mavenOpts.contains("SharedArchiveFile") || mavenOpts.contains("ArchiveClassesAtExit"));
+    }
+
+    /**
+     * Picks the class data sharing (CDS) archive for a Maven process, so that it maps the classes
+     * of Maven, remoting and the interceptors from the archive instead of loading them one by one.
+     *
+     * <p>
+     * Archives live in {@value #DIR_NAME} under the node root, one per JDK, Maven installation
+     * and set of jars, where the jars are identified by their size and modification time.
+     * The first process launched for a new combination writes the archive when it exits
+     * ({@code -XX:ArchiveClassesAtExit}), and later ones use it ({@code -XX:SharedArchiveFile}).
+     * When any of the jars changes, the combination is a new one, so the archive gets written again
+     * and the one it replaces is deleted.
+     *
+     * <p>
+     * Dynamic archives need Java 13 or later. Nothing is added for older JDKs.
+     */
+    static final class SharedClassArchive extends MasterToSlaveFileCallable<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        static final String DIR_NAME = "maven-cds";
+
+        /**
+         * A process that claimed the writing of an archive this long ago and hasn't written it,
+         * most likely never exited cleanly. Then another one gets to try.
+         */
+        static final long CLAIM_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+        private final String jdkHome;
+        private final String mvnHome;
+        private final List<String> jars;
+
+        SharedClassArchive(String jdkHome, String mvnHome, List<String> jars) {
+            this.jdkHome = jdkHome;
+            this.mvnHome = mvnHome;
+            this.jars = jars;
+        }
+
+        public List<String> invoke(File dir, VirtualChannel channel) throws IOException {
+            String javaVersion = javaVersion(new File(jdkHome));
+            if (javaVersion==null || featureVersion(javaVersion)<13)
+                return Collections.emptyList();
+
+            StringBuilder content = new StringBuilder(javaVersion);
+            for (String jar : jars)
+                describe(new File(jar), content);
+            for (String lib : new String[] {"boot", "lib", "lib/ext"}) {
+                File[] files = new File(mvnHome, lib).listFiles();
+                if (files!=null) {
+                    Arrays.sort(files);
+                    for (File f : files)
+                        describe(f, content);
+                }
+            }
+            String prefix = Util.getDigestOf(jdkHome+'\u0000'+mvnHome).substring(0, 16)+'-';
+            File archive = new File(dir, prefix+Util.getDigestOf(content.toString()).substring(0, 16)+".jsa");
+            File claim = new File(dir, archive.getName()+".lock");
+
+            List<String> options = new ArrayList<>();
+            if (archive.isFile()) {
+                delete(claim);
+                options.add("-XX:SharedArchiveFile="+archive);
+            } else if (claim(claim)) {
+                // whatever was written for the jars this replaces is of no use anymore
+                File[] stale = dir.listFiles((d, name) -> name.startsWith(prefix) && !name.startsWith(archive.getName()));
+                if (stale!=null) {
+                    for (File f : stale)
+                        delete(f);
+                }
+                options.add("-XX:ArchiveClassesAtExit="+archive);
+            } else {
+                return Collections.emptyList();
+            }
+            // a mismatch is not worth a warning in the build log; the process just runs without the archive
+            options.add("-Xlog:cds*=off");
+            return options;
+        }
+
+        /**
+         * Claims the writing of the archive for one process, so that concurrent launches don't all write it.
+         */
+        private static boolean claim(File claim) throws IOException {
+            Files.createDirectories(claim.getParentFile().toPath());
+            if (claim.createNewFile())
+                return true;
+            if (System.currentTimeMillis()-claim.lastModified() < CLAIM_TIMEOUT)
+                return false;
+            // touching it is racy, but at worst two processes write the same archive
+            return claim.setLastModified(System.currentTimeMillis());
+        }
+
+        /**
+         * Deletes a file left over from earlier launches, if it can be.
+         * On Windows a Maven process still running from an archive keeps it from being deleted,
+         * which does no harm as it's only left behind.
+         */
+        private static void delete(File f) {
+            try {
+                Files.deleteIfExists(f.toPath());
+            } catch (IOException e) {
+                // tried again on the next launch
+            }
+        }
+
+        private static void describe(File f, StringBuilder content) {
+            content.append('\u0000').append(f.getPath()).append(',').append(f.length()).append(',').append(f.lastModified());
+        }
+
+        /**
+         * Reads the version of the JDK from its {@code release} file.
+         *
+         * @return null if it can't be told.
+         */
+        static @CheckForNull String javaVersion(File jdkHome) throws IOException {
+            File release = new File(jdkHome, "release");
+            if (!release.isFile())
+                return null;
+            Properties p = new Properties();
+            try (InputStream in = Files.newInputStream(release.toPath())) {
+                p.load(in);
+            }
+            String version = p.getProperty("JAVA_VERSION");
+            return version!=null ? version.replace("\"", "").trim() : null;
+        }
+
+        /**
+         * Gets the feature release number out of a Java version, such as 8 for "1.8.0_292" or 17 for "17.0.2".
+         */
+        static int featureVersion(String javaVersion) {
+            String[] parts = javaVersion.split("[._\\-+]");
+            try {
+                int major = Integer.parseInt(parts[0]);
+                return major==1 && parts.length>1 ? Integer.parseInt(parts[1]) : major;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+
     /**
      * Returns the classpath string for the maven-agent jar including classworlds
      */
@@ -566,7 +959,37 @@ public abstract class AbstractMavenProcessFactory
         if (root == null) { // controller
             return Which.jarFile(representative).getAbsolutePath();
         } else {
-            return copyJar(listener.getLogger(), root, representative, seedName).getRemote();
+            File jar = Which.jarFile(representative);
+            String digest = jar.isFile() ? getJarDigest(jar) : null;
+            String name = seedName + ".jar";
+            if (digest != null && isCopied(name, digest)) {
+                listener.getLogger().println(name + " already up to date");
+                return root.child(name).getRemote();
+            }
+            String path = copyJar(listener.getLogger(), root, representative, seedName).getRemote();
+            if (digest != null) {
+                copied(name, digest);
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Checks the {@link LaunchPlan} of this node to see if the given jar has already been copied to the agent root,
+     * without asking the agent.
+     */
+    protected final boolean isCopied(String name, String digest) {
+        LaunchPlan p = plan;
+        return p != null && digest.equals(p.copiedJars.get(name));
+    }
+
+    /**
+     * Records in the {@link LaunchPlan} of this node that a jar with the given digest is now in the agent root.
+     */
+    protected final void copied(String name, String digest) {
+        LaunchPlan p = plan;
+        if (p != null) {
+            p.copiedJars.put(name, digest);
         }
     }
     /**
@@ -577,6 +1000,7 @@ public abstract class AbstractMavenProcessFactory
         // in that way we can find it.
         File jar = Which.jarFile(representative);
         FilePath copiedJar = dst.child(seedName + ".jar");
+        String digest = null;
 
         if (jar.isDirectory()) {
             // but during the development and unit test environment, we may be picking the class up from the classes dir
@@ -588,26 +1012,203 @@ public abstract class AbstractMavenProcessFactory
             zip.setProject(new Project());
             zip.execute();
             jar = t;
-        } else if (copiedJar.exists() && copiedJar.digest().equals(Util.getDigestOf(jar))) {
-            log.println(seedName + ".jar already up to date");
-            return copiedJar;
+        } else {
+            digest = getJarDigest(jar);
+            if (isUpToDate(dst, copiedJar.getName(), digest)) {
+                log.println(seedName + ".jar already up to date");
+                return copiedJar;
+            }
         }
 
-        // Theoretically could be a race condition on a multi-executor Windows agent; symptom would be an IOException during the build.
-        // Could perhaps be solved by synchronizing on dst.getChannel() or similar.
-        new FilePath(jar).copyTo(copiedJar);
+        try (InputStream in = Files.newInputStream(jar.toPath())) {
+            install(dst, copiedJar.getName(), in, digest);
+        }
         log.println("Copied " + seedName + ".jar");
         return copiedJar;
     }
 
+    /**
+     * Digests of the jars on the controller. They don't change until the plugin is updated,
+     * which takes a restart, so each is only read once.
+     */
+    private static final Map<File,String> JAR_DIGESTS = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the digest of a jar on the controller, computing it only the first time.
+     */
+    static String getJarDigest(File jar) throws IOException {
+        String digest = JAR_DIGESTS.get(jar);
+        if (digest == null) {
+            digest = Util.getDigestOf(jar);
+            JAR_DIGESTS.put(jar, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * Checks if the jar in the given directory has the given digest, using {@link CopiedJarManifest}.
+     */
+    static boolean isUpToDate(FilePath dir, String name, String digest) throws IOException, InterruptedException {
+        return dir.act(new IsJarUpToDate(name, digest));
+    }
+
+    /**
+     * Copies a jar into the given directory. The new content is written next to it first and then moved in place,
+     * so that a process starting at the same time never sees a partially written jar.
+     *
+     * @param digest
+     *      Digest of the content, or null if it isn't known.
+     */
+    static void install(FilePath dir, String name, InputStream content, @CheckForNull String digest) throws IOException, InterruptedException {
+        FilePath tmp = dir.createTempFile(name, ".tmp");
+        boolean installed = false;
+        try {
+            tmp.copyFrom(content);
+            dir.act(new InstallJar(tmp.getName(), name, digest));
+            installed = true;
+        } finally {
+            if (!installed) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private static final class IsJarUpToDate extends MasterToSlaveFileCallable<Boolean> {
+        private static final long serialVersionUID = 1L;
+        private final String name;
+        private final String digest;
+
+        IsJarUpToDate(String name, String digest) {
+            this.name = name;
+            this.digest = digest;
+        }
+
+        public Boolean invoke(File dir, VirtualChannel channel) throws IOException {
+            return digest.equals(CopiedJarManifest.digest(dir, name));
+        }
+    }
+
+    private static final class InstallJar extends MasterToSlaveFileCallable<Void> {
+        private static final long serialVersionUID = 1L;
+        private final String tmp;
+        private final String name;
+        private final String digest;
+
+        InstallJar(String tmp, String name, String digest) {
+            this.tmp = tmp;
+            this.name = name;
+            this.digest = digest;
+        }
+
+        public Void invoke(File dir, VirtualChannel channel) throws IOException {
+            File jar = new File(dir, name);
+            CopiedJarManifest.move(new File(dir, tmp), jar);
+            CopiedJarManifest.record(dir, name, digest != null ? digest : Util.getDigestOf(jar));
+            return null;
+        }
+    }
+
+    /**
+     * Size, modification time and digest of the jars copied into a directory on the agent,
+     * kept in {@value #FILE_NAME} in the same directory. Checking if a jar is up to date
+     * then only needs to look at its metadata, rather than reading the whole jar again.
+     */
+    static final class CopiedJarManifest {
+        static final String FILE_NAME = "maven-plugin-jars.properties";
+
+        /**
+         * Guards all manifests of this JVM against concurrent builds.
+         */
+        private static final Object LOCK = new Object();
+
+        /**
+         * Gets the digest of the jar, computing it only if the jar changed since it was last recorded.
+         *
+         * @return null if there's no such jar.
+         */
+        static @CheckForNull String digest(File dir, String name) throws IOException {
+            File jar = new File(dir, name);
+            if (!jar.isFile())
+                return null;
+            synchronized (LOCK) {
+                Properties manifest = load(dir);
+                String metadata = metadataOf(jar);
+                String entry = manifest.getProperty(name);
+                if (entry != null && entry.startsWith(metadata))
+                    return entry.substring(metadata.length());
+
+                String digest = Util.getDigestOf(jar);
+                manifest.setProperty(name, metadata + digest);
+                store(dir, manifest);
+                return digest;
+            }
+        }
+
+        static void record(File dir, String name, String digest) throws IOException {
+            synchronized (LOCK) {
+                Properties manifest = load(dir);
+                manifest.setProperty(name, metadataOf(new File(dir, name)) + digest);
+                store(dir, manifest);
+            }
+        }
+
+        private static String metadataOf(File jar) {
+            return jar.length() + "," + jar.lastModified() + ",";
+        }
+
+        private static Properties load(File dir) throws IOException {
+            Properties manifest = new Properties();
+            File f = new File(dir, FILE_NAME);
+            if (f.isFile()) {
+                try (InputStream in = Files.newInputStream(f.toPath())) {
+                    manifest.load(in);
+                } catch (IllegalArgumentException e) {
+                    // corrupted; everything gets checked again
+                    manifest.clear();
+                }
+            }
+            return manifest;
+        }
+
+        private static void store(File dir, Properties manifest) throws IOException {
+            File tmp = File.createTempFile(FILE_NAME, ".tmp", dir);
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+                    manifest.store(out, null);
+                }
+                move(tmp, new File(dir, FILE_NAME));
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        }
+
+        static void move(File from, File to) throws IOException {
+            try {
+                Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
     /**
      * Returns the current {@link Node} on which we are buildling.
      */
     protected Node getCurrentNode() {
+        if (node!=null)
+            return node;
         return Executor.currentExecutor().getOwner().getNode();
     }
     
 
+    public FilePath getWorkDir() {
+        return workDir;
+    }
+
+    public Node getNode() {
+        return getCurrentNode();
+    }
+
     protected MavenModuleSet getMavenModuleSet() {
         return mms;
     }
@@ -637,6 +1238,23 @@ public abstract class AbstractMavenProcessFactory
         }
     }
     
+    /**
+     * Set to true to send the jars of reporters to each new Maven process up front,
+     * instead of letting it load their classes one by one from the controller.
+     * Off by default, as every new process then gets a copy of each whole jar.
+     *
+     * @see #getPreloadManifest()
+     */
+    public static boolean preloadReporterJars = Boolean.getBoolean("hudson.maven.preloadReporterJars");
+
+    /**
+     * Set to true to launch Maven processes on JDK 13 and later with a class data sharing archive,
+     * which the first of them writes when it exits.
+     *
+     * @see SharedClassArchive
+     */
+    public static boolean sharedClassArchive = Boolean.getBoolean("hudson.maven.sharedClassArchive");
+
     /**
      * If true, launch Maven with YJP offline profiler agent.
      */
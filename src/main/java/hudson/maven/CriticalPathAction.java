@@ -0,0 +1,228 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.maven;
+
+import hudson.model.Action;
+import hudson.model.Api;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The critical path of the reactor: the chain of dependent modules that took longest in total.
+ * No number of threads gets a build done faster than this chain, so the ratio between the time
+ * all modules took and the time of the chain is the most that building in parallel ({@code -T}) can gain.
+ *
+ * <p>
+ * Computed once when the module set build completes, from the mojos each module build ran,
+ * so that reading it doesn't need to load the module builds.
+ */
+@ExportedBean
+public class CriticalPathAction implements Action {
+    private final List<Step> path;
+    /**
+     * Sum of the durations of all modules, in milliseconds.
+     */
+    private final long totalDuration;
+
+    CriticalPathAction(List<Step> path, long totalDuration) {
+        this.path = path;
+        this.totalDuration = totalDuration;
+    }
+
+    /**
+     * Modules on the critical path, from the first to be built to the last.
+     */
+    @Exported(inline=true)
+    public List<Step> getPath() {
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Sum of the durations of the modules on the critical path, in milliseconds.
+     */
+    @Exported
+    public long getDuration() {
+        long d = 0;
+        for (Step s : path)
+            d += s.duration;
+        return d;
+    }
+
+    @Exported
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    /**
+     * How many times faster the build could get with enough threads, if nothing but the dependencies
+     * between modules kept them from being built at the same time.
+     */
+    @Exported
+    public double getMaxSpeedup() {
+        long d = getDuration();
+        return d == 0 ? 1 : (double) totalDuration / d;
+    }
+
+    public Api getApi() {
+        return new Api(this);
+    }
+
+    public String getIconFileName() {
+        return null;
+    }
+
+    public String getDisplayName() {
+        return Messages.CriticalPathAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "criticalPath";
+    }
+
+    /**
+     * A module on the critical path.
+     */
+    @ExportedBean(defaultVisibility=2)
+    public static final class Step implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String module;
+        private final long duration;
+
+        Step(ModuleName module, long duration) {
+            this.module = module.toString();
+            this.duration = duration;
+        }
+
+        @Exported
+        public String getModule() {
+            return module;
+        }
+
+        /**
+         * Milliseconds the mojos of the module took.
+         */
+        @Exported
+        public long getDuration() {
+            return duration;
+        }
+    }
+
+    /**
+     * Computes the critical path from the module builds of a module set build.
+     *
+     * @return null if no module was built.
+     */
+    static CriticalPathAction of(Map<MavenModule,MavenBuild> builds) {
+        Map<ModuleName,Long> durations = new HashMap<>();
+        Map<ModuleName,Set<ModuleName>> dependencies = new HashMap<>();
+        for (Map.Entry<MavenModule,MavenBuild> e : builds.entrySet()) {
+            ModuleName name = e.getKey().getModuleName();
+            durations.put(name, durationOf(e.getValue()));
+            Set<ModuleName> deps = new HashSet<>();
+            for (ModuleDependency d : e.getKey().getDependencies())
+                deps.add(d.getName());
+            dependencies.put(name, deps);
+        }
+        return compute(durations, dependencies);
+    }
+
+    /**
+     * Time spent in the mojos of the module build, which unlike the duration of the build
+     * doesn't include waiting for other modules when building in parallel.
+     * 0 for modules that weren't built.
+     */
+    private static long durationOf(MavenBuild b) {
+        long d = 0;
+        for (ExecutedMojo m : b.getExecutedMojos())
+            d += m.duration;
+        return d;
+    }
+
+    /**
+     * Finds the longest chain of dependent modules.
+     *
+     * @param dependencies
+     *      Modules each module depends on. Modules that are not in {@code durations} are ignored.
+     * @return null if there are no modules.
+     */
+    static CriticalPathAction compute(Map<ModuleName,Long> durations, Map<ModuleName,Set<ModuleName>> dependencies) {
+        if (durations.isEmpty())
+            return null;
+        Map<ModuleName,Long> longest = new HashMap<>();
+        Map<ModuleName,ModuleName> previous = new HashMap<>();
+        ModuleName last = null;
+        long total = 0;
+        for (ModuleName m : durations.keySet()) {
+            total += durations.get(m);
+            long l = longest(m, durations, dependencies, longest, previous, new HashSet<>());
+            if (last == null || l > longest.get(last))
+                last = m;
+        }
+
+        List<Step> path = new ArrayList<>();
+        for (ModuleName m = last; m != null; m = previous.get(m))
+            path.add(new Step(m, durations.get(m)));
+        Collections.reverse(path);
+        return new CriticalPathAction(path, total);
+    }
+
+    /**
+     * Duration of the longest chain ending with the given module, memoized in {@code longest}.
+     */
+    private static long longest(ModuleName m, Map<ModuleName,Long> durations, Map<ModuleName,Set<ModuleName>> dependencies,
+                                Map<ModuleName,Long> longest, Map<ModuleName,ModuleName> previous, Set<ModuleName> visiting) {
+        Long known = longest.get(m);
+        if (known != null)
+            return known;
+        visiting.add(m);
+
+        long before = 0;
+        ModuleName from = null;
+        for (ModuleName d : dependencies.getOrDefault(m, Collections.emptySet())) {
+            // a cycle can't be built by Maven anyway, so its closing edge is simply left out
+            if (!durations.containsKey(d) || visiting.contains(d))
+                continue;
+            long l = longest(d, durations, dependencies, longest, previous, visiting);
+            if (from == null || l > before) {
+                before = l;
+                from = d;
+            }
+        }
+        visiting.remove(m);
+
+        long l = before + durations.get(m);
+        longest.put(m, l);
+        if (from != null)
+            previous.put(m, from);
+        return l;
+    }
+}
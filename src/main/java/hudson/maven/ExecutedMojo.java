@@ -29,12 +29,26 @@ import jenkins.model.Jenkins;
 import hudson.remoting.Which;
 import hudson.util.ReflectionUtils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -100,7 +114,7 @@ public final class ExecutedMojo implements Serializable {
             if (clazz!=null) {
                 File jarFile = Which.jarFile(clazz);
                 if (jarFile.isFile()) {
-                    digest = Util.getDigestOf(jarFile);
+                    digest = DIGESTS.get(jarFile);
                 } else {
                     // Maybe mojo was loaded from a classes dir instead of from a jar (JENKINS-5044)
                     LOGGER.log(Level.WARNING, "Cannot calculate digest of mojo class, because mojo wasn't loaded from a jar, but from: "
@@ -149,7 +163,7 @@ public final class ExecutedMojo implements Serializable {
     /**
      * Copy constructor used for interning.
      */
-    private ExecutedMojo(String groupId, String artifactId, String version, String goal, String executionId, long duration, String digest) {
+    ExecutedMojo(String groupId, String artifactId, String version, String goal, String executionId, long duration, String digest) {
         this.groupId = groupId;
         this.artifactId = artifactId;
         this.version = version;
@@ -223,5 +237,234 @@ public final class ExecutedMojo implements Serializable {
         }
     }
 
+    /**
+     * Digests of plugin jars, as the same few jars run mojos for every module of the reactor.
+     *
+     * <p>
+     * Lives as long as the Maven JVM, and is kept in the local repository between Maven JVMs,
+     * since that's where the jars are and it outlives both.
+     */
+    static final class DigestCache {
+        /**
+         * Name of the file in the local repository that holds the digests.
+         */
+        static final String FILE_NAME = ".jenkins-plugin-digests";
+
+        private final Map<String,Entry> entries = new ConcurrentHashMap<>();
+        private volatile boolean dirty;
+
+        /**
+         * A digest is only valid for the size and timestamp of the jar it was computed from,
+         * so a jar rebuilt or redownloaded in place gets hashed again.
+         */
+        private static final class Entry {
+            final long size;
+            final long lastModified;
+            final String digest;
+
+            Entry(long size, long lastModified, String digest) {
+                this.size = size;
+                this.lastModified = lastModified;
+                this.digest = digest;
+            }
+
+            boolean matches(File jar) {
+                return jar.length() == size && jar.lastModified() == lastModified;
+            }
+        }
+
+        String get(File jar) throws IOException {
+            String path = jar.getAbsolutePath();
+            Entry e = entries.get(path);
+            if (e != null && e.matches(jar))
+                return e.digest;
+            long size = jar.length(), lastModified = jar.lastModified();
+            String digest = Util.getDigestOf(jar);
+            entries.put(path, new Entry(size, lastModified, intern(digest)));
+            dirty = true;
+            return digest;
+        }
+
+        /**
+         * Adds the digests other Maven JVMs saved in the given local repository.
+         * Digests already known to this JVM win.
+         */
+        void load(File localRepository) {
+            File f = new File(localRepository, FILE_NAME);
+            if (!f.isFile())
+                return;
+            Properties p = new Properties();
+            try (InputStream in = Files.newInputStream(f.toPath())) {
+                p.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.log(Level.FINE, "Failed to read plugin digests from " + f, e);
+                return;
+            }
+            for (String path : p.stringPropertyNames()) {
+                // size,lastModified,digest
+                String[] v = p.getProperty(path).split(",");
+                if (v.length != 3)
+                    continue;
+                try {
+                    entries.putIfAbsent(path, new Entry(Long.parseLong(v[0]), Long.parseLong(v[1]), intern(v[2])));
+                } catch (NumberFormatException e) {
+                    // skip the entry
+                }
+            }
+        }
+
+        /**
+         * Writes the digests to the given local repository, if any was computed since the last save.
+         * Jars that are gone are left out.
+         */
+        void save(File localRepository) {
+            if (!dirty || !localRepository.isDirectory())
+                return;
+            dirty = false;
+            Properties p = new Properties();
+            for (Map.Entry<String,Entry> e : entries.entrySet()) {
+                Entry v = e.getValue();
+                if (v.matches(new File(e.getKey())))
+                    p.setProperty(e.getKey(), v.size + "," + v.lastModified + "," + v.digest);
+            }
+            File f = new File(localRepository, FILE_NAME);
+            try {
+                // other Maven JVMs may share the local repository, so never let them see a partial file
+                Path tmp = Files.createTempFile(localRepository.toPath(), FILE_NAME, ".tmp");
+                try {
+                    try (OutputStream out = Files.newOutputStream(tmp)) {
+                        p.store(out, "Digests of Maven plugin jars, written by Jenkins");
+                    }
+                    AbstractMavenProcessFactory.CopiedJarManifest.move(tmp.toFile(), f);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to save plugin digests to " + f, e);
+            }
+        }
+    }
+
+    static final DigestCache DIGESTS = new DigestCache();
+
+    /**
+     * Reads and writes the {@link ExecutedMojo}s of a build in a file of their own,
+     * so that loading the build doesn't load them.
+     *
+     * <p>
+     * Every string is written once per file and referred to by index after that, as a build
+     * runs few distinct plugins many times. Digests get a table of their own.
+     */
+    static final class Store {
+        private static final int MAGIC = 0x4d4f4a4f; // "MOJO"
+        private static final int VERSION = 1;
+
+        static void write(List<ExecutedMojo> mojos, File file) throws IOException {
+            Map<String,Integer> strings = new LinkedHashMap<>();
+            Map<String,Integer> digests = new LinkedHashMap<>();
+            for (ExecutedMojo m : mojos) {
+                for (String v : new String[] {m.groupId, m.artifactId, m.version, m.goal, m.executionId})
+                    if (v != null)
+                        strings.putIfAbsent(v, strings.size());
+                if (m.digest != null)
+                    digests.putIfAbsent(m.digest, digests.size());
+            }
+
+            Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    writeTable(out, strings.keySet());
+                    writeTable(out, digests.keySet());
+                    writeIndex(out, mojos.size());
+                    for (ExecutedMojo m : mojos) {
+                        writeRef(out, strings, m.groupId);
+                        writeRef(out, strings, m.artifactId);
+                        writeRef(out, strings, m.version);
+                        writeRef(out, strings, m.goal);
+                        writeRef(out, strings, m.executionId);
+                        writeRef(out, digests, m.digest);
+                        out.writeLong(m.duration);
+                    }
+                }
+                AbstractMavenProcessFactory.CopiedJarManifest.move(tmp.toFile(), file);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        static List<ExecutedMojo> read(File file) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                    throw new IOException("Not a file of executed mojos: " + file);
+                String[] strings = readTable(in);
+                String[] digests = readTable(in);
+                int n = readIndex(in);
+                List<ExecutedMojo> mojos = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    String groupId = readRef(in, strings);
+                    String artifactId = readRef(in, strings);
+                    String version = readRef(in, strings);
+                    String goal = readRef(in, strings);
+                    String executionId = readRef(in, strings);
+                    String digest = readRef(in, digests);
+                    mojos.add(new ExecutedMojo(groupId, artifactId, version, goal, executionId, in.readLong(), digest));
+                }
+                return mojos;
+            } catch (RuntimeException e) {
+                // a corrupt index
+                throw new IOException("Failed to read " + file, e);
+            }
+        }
+
+        private static void writeTable(DataOutputStream out, Collection<String> values) throws IOException {
+            writeIndex(out, values.size());
+            for (String v : values)
+                out.writeUTF(v);
+        }
+
+        private static String[] readTable(DataInputStream in) throws IOException {
+            String[] values = new String[readIndex(in)];
+            for (int i = 0; i < values.length; i++)
+                values[i] = intern(in.readUTF());
+            return values;
+        }
+
+        /**
+         * 0 for null, the index plus one otherwise.
+         */
+        private static void writeRef(DataOutputStream out, Map<String,Integer> table, String value) throws IOException {
+            writeIndex(out, value == null ? 0 : table.get(value) + 1);
+        }
+
+        private static String readRef(DataInputStream in, String[] table) throws IOException {
+            int i = readIndex(in);
+            return i == 0 ? null : table[i - 1];
+        }
+
+        /**
+         * Variable length, so that the indices of small tables take a byte.
+         */
+        private static void writeIndex(DataOutputStream out, int i) throws IOException {
+            while ((i & ~0x7f) != 0) {
+                out.writeByte((i & 0x7f) | 0x80);
+                i >>>= 7;
+            }
+            out.writeByte(i);
+        }
+
+        private static int readIndex(DataInputStream in) throws IOException {
+            int i = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                i |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0)
+                    return i;
+            }
+            throw new IOException("Malformed index");
+        }
+    }
+
     private static final Logger LOGGER = Logger.getLogger(ExecutedMojo.class.getName());
 }
@@ -58,7 +58,7 @@ public class Maven31ProcessFactory extends Maven3ProcessFactory
 
     @Override
     protected String getMavenAgentClassPath(MavenInstallation mvn, FilePath slaveRoot, BuildListener listener) throws IOException, InterruptedException {
-        String classWorldsJar = getLauncher().getChannel().call(new Maven3ProcessFactory.GetClassWorldsJar(mvn.getHome(),listener));
+        String classWorldsJar = getClassWorldsJar(mvn, listener);
         String path = classPathEntry(slaveRoot, Maven31Main.class, "maven31-agent", listener) +
             (getLauncher().isUnix()?":":";")+classWorldsJar;
 
@@ -58,7 +58,7 @@ public class Maven33ProcessFactory extends Maven3ProcessFactory
 
     @Override
     protected String getMavenAgentClassPath(MavenInstallation mvn, FilePath slaveRoot, BuildListener listener) throws IOException, InterruptedException {
-        String classWorldsJar = getLauncher().getChannel().call(new GetClassWorldsJar(mvn.getHome(),listener));
+        String classWorldsJar = getClassWorldsJar(mvn, listener);
         String path = classPathEntry(slaveRoot, Maven33Main.class, "maven33-agent", listener) +
             (getLauncher().isUnix()?":":";")+classWorldsJar;
 
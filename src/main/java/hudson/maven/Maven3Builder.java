@@ -34,6 +34,7 @@ import hudson.remoting.Channel;
 import hudson.remoting.DelegatingCallable;
 import hudson.tasks._maven.Maven3MojoNote;
 import jenkins.model.Jenkins;
+import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.eventspy.EventSpy;
 import org.apache.maven.execution.AbstractExecutionListener;
 import org.apache.maven.execution.ExecutionEvent;
@@ -41,29 +42,34 @@ import org.apache.maven.execution.ExecutionListener;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.classworlds.NoSuchRealmException;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
 import org.jvnet.hudson.maven3.listeners.HudsonMavenExecutionResult;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static hudson.Util.fixNull;
-
 /**
  * @author Olivier Lamy
  * @author Kohsuke Kawaguchi
@@ -76,6 +82,11 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
      */
     private final boolean profile = MavenProcessFactory.profile;
 
+    /**
+     * Same as {@link #profile}, for {@link #ASYNC_REPORTERS}.
+     */
+    private final boolean asyncReporters = ASYNC_REPORTERS;
+
     HudsonMavenExecutionResult mavenExecutionResult;
 
     Class<?> maven3MainClass;
@@ -114,10 +125,12 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
         
         configureConsoleLogging();
 
+        MavenExecutionListener mavenExecutionListener = null;
         try {
             initializeAsynchronousExecutions();
+            overhead.start(Channel.current());
 
-            MavenExecutionListener mavenExecutionListener = supportEventSpy ? new JenkinsEventSpy(this) : new MavenExecutionListener( this );
+            mavenExecutionListener = supportEventSpy ? new JenkinsEventSpy(this) : new MavenExecutionListener( this );
             if (supportEventSpy)
             {
                 Method setEventSpiesMethod = maven3LauncherClass.getMethod( "setEventSpies", List.class );
@@ -148,13 +161,15 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
             }
 
             mavenExecutionListener.overheadTime += System.nanoTime()-startTime;
+            overhead.finish(mavenExecutionListener.overheadTime, Channel.current(), batchStatistics);
+            MavenOverheadAction.setLast(overhead);
 
             if(profile) {
                 NumberFormat n = NumberFormat.getInstance();
                 logger.println("Total overhead was "+format(n,mavenExecutionListener.overheadTime)+"ms");
-                Channel ch = Channel.current();
-                logger.println("Class loading "   +format(n,ch.classLoadingTime.get())   +"ms, "+ch.classLoadingCount+" classes");
-                logger.println("Resource loading "+format(n,ch.resourceLoadingTime.get())+"ms, "+ch.resourceLoadingCount+" times");
+                logger.println("Class loading "   +n.format(overhead.getClassLoadingTime())   +"ms, "+overhead.getClassLoadingCount()+" classes");
+                logger.println("Resource loading "+n.format(overhead.getResourceLoadingTime())+"ms, "+overhead.getResourceLoadingCount()+" times");
+                logger.println("Reporter results: "+batchStatistics);
             }
 
             Method mavenExecutionResultGetMethod = maven3LauncherClass.getMethod( "getMavenExecutionResult", (Class[])null );
@@ -179,6 +194,28 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
         } finally {
             if (DUMP_PERFORMANCE_COUNTERS)
                 Channel.current().dumpPerformanceCounters(listener.error("Remoting stats"));
+            resetProcessState(mavenExecutionListener);
+        }
+    }
+
+    /**
+     * Clears what this build left behind in the Maven JVM, so that {@link ProcessCache} can hand
+     * the same JVM to the next build. System properties are restored by {@link ProcessCache} itself.
+     */
+    private void resetProcessState(@CheckForNull MavenExecutionListener mavenExecutionListener) {
+        markAsSuccess = false;
+        try {
+            // don't let the launcher hold on to the proxies of this build while the process sits in the cache
+            if (supportEventSpy) {
+                maven3LauncherClass.getMethod( "setEventSpies", List.class ).invoke( null, Collections.emptyList() );
+            } else {
+                maven3LauncherClass.getMethod( "setMavenExecutionListener", ExecutionListener.class ).invoke( null, (Object) null );
+            }
+        } catch (ReflectiveOperationException e) {
+            LOGGER.log(Level.FINE, "Failed to clear the execution listener of " + maven3LauncherClass, e);
+        }
+        if (mavenExecutionListener != null) {
+            mavenExecutionListener.disposeBuildRealms();
         }
     }
 
@@ -353,24 +390,31 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
         long overheadTime;
 
 
-        private final Map<ModuleName,FilterImpl> proxies;
-
-        private final Map<ModuleName,List<ExecutedMojo>> executedMojosPerModule = new ConcurrentHashMap<>();
-
-        private final Map<ModuleName,List<MavenReporter>> reporters;
+        /**
+         * Modules of the build, by name, in the order of {@link AbstractMavenBuilder#proxies}.
+         */
+        private final Map<ModuleName,Module> modules = new LinkedHashMap<>();
 
-        private final Map<ModuleName, Long> currentMojoStartPerModuleName = new ConcurrentHashMap<>();
+        /**
+         * {@link #modules} keyed by the {@link MavenProject} instances of the session, so that dispatching
+         * an event neither compares names nor allocates. Built in {@link #sessionStarted}.
+         */
+        private transient volatile Map<MavenProject,Module> modulesByProject = Collections.emptyMap();
 
         @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "TODO needs triage")
         protected ExecutionEventLogger eventLogger;
 
+        /**
+         * The class world plugin realms were created in, captured from the first mojo we see.
+         */
+        private transient ClassWorld classWorld;
+
         MavenExecutionListener(Maven3Builder maven3Builder) {
             this.maven3Builder = maven3Builder;
-            this.proxies = new ConcurrentHashMap<>(maven3Builder.proxies);
-            for (ModuleName name : this.proxies.keySet()) {
-                executedMojosPerModule.put( name, new CopyOnWriteArrayList<>() );
+            for (Entry<ModuleName,FilterImpl> e : maven3Builder.proxies.entrySet()) {
+                modules.put(e.getKey(), new Module(e.getValue(), maven3Builder.reporters.get(e.getKey()),
+                        maven3Builder.asyncReporters ? maven3Builder.newReporterQueue() : null));
             }
-            this.reporters = new ConcurrentHashMap<>(maven3Builder.reporters);
 
 
             // E.g. there's also the option to redirect logging to a file which is handled there, but not here.
@@ -387,27 +431,13 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
             return hasTestFailures.get();
         }
 
-        private @CheckForNull MavenBuildProxy2 getMavenBuildProxy2(MavenProject mavenProject) {
-            for (Entry<ModuleName,FilterImpl> entry : proxies.entrySet()) {
-               if (entry.getKey().compareTo( new ModuleName( mavenProject ) ) == 0) {
-                   return entry.getValue();
-               }
+        private @CheckForNull Module getModule(MavenProject mavenProject) {
+            Module module = modulesByProject.get(mavenProject);
+            if (module == null && mavenProject != null) {
+                // not one of the session's instances, e.g. the clone of a forked life cycle
+                module = modules.get(new ModuleName(mavenProject));
             }
-            return null;
-        }
-
-        private List<MavenReporter> getMavenReporters(MavenProject mavenProject) {
-            return reporters.get( new ModuleName( mavenProject ) );
-        }
-
-        private long initMojoStartTime( MavenProject mavenProject) {
-            long mojoStartTime = System.currentTimeMillis();
-            this.currentMojoStartPerModuleName.put( new ModuleName( mavenProject), mojoStartTime);
-            return mojoStartTime;
-        }
-
-        private Long getMojoStartTime(MavenProject mavenProject) {
-            return currentMojoStartPerModuleName.get( new ModuleName(mavenProject) );
+            return module;
         }
 
         /**
@@ -423,14 +453,27 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
         public void sessionStarted( ExecutionEvent event ) {
             this.eventLogger.sessionStarted(event);
 
+            File localRepository = getLocalRepository(event);
+            if (localRepository != null)
+                ExecutedMojo.DIGESTS.load(localRepository);
+
             Map<ModuleName, MavenProject> buildingProjects = getSessionProjects(event);
 
-            for (Entry<ModuleName,FilterImpl> e : this.proxies.entrySet()) {
+            Map<MavenProject,Module> byProject = new IdentityHashMap<>();
+            for (Entry<ModuleName,Module> e : this.modules.entrySet()) {
                 MavenProject project = buildingProjects.get(e.getKey());
                 if (project!=null) {
-                    for (MavenReporter mavenReporter : fixNull(reporters.get(e.getKey()))) {
+                    byProject.put(project, e.getValue());
+                }
+            }
+            this.modulesByProject = byProject;
+
+            for (Entry<ModuleName,Module> e : this.modules.entrySet()) {
+                MavenProject project = buildingProjects.get(e.getKey());
+                if (project!=null) {
+                    for (MavenReporter mavenReporter : e.getValue().reporters) {
                         try {
-                            mavenReporter.preBuild( e.getValue() ,project, maven3Builder.listener);
+                            mavenReporter.preBuild( e.getValue().proxy ,project, maven3Builder.listener);
                         } catch ( InterruptedException|IOException x ) {
                             x.printStackTrace();
                         }
@@ -439,7 +482,7 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
                     // set all modules which are not actually being build (in incremental builds) to NOT_BUILD (JENKINS-9072)
                     LOGGER.fine("Project " + e.getKey() + " needs not be build");
 
-                    MavenBuildProxy2 proxy = e.getValue();
+                    MavenBuildProxy2 proxy = e.getValue().proxy;
                     proxy.start();
                     proxy.setResult(Result.NOT_BUILT);
                     proxy.end();
@@ -454,22 +497,26 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
             debug( "sessionEnded" );
             this.eventLogger.sessionEnded( event );
 
-            Map<ModuleName, MavenProject> buildingProjects = getSessionProjects(event);
+            File localRepository = getLocalRepository(event);
+            if (localRepository != null)
+                ExecutedMojo.DIGESTS.save(localRepository);
 
-            for (Entry<ModuleName,FilterImpl> e : fixNull(this.proxies.entrySet())) {
-                MavenProject project = buildingProjects.get(e.getKey());
-                if (project!=null) {
-                    for (MavenReporter mavenReporter : reporters.get(e.getKey())) {
-                        try {
-                            mavenReporter.postBuild( e.getValue() ,project, maven3Builder.listener);
-                        } catch ( InterruptedException|IOException x ) {
-                            x.printStackTrace();
-                        }
+            for (Entry<MavenProject,Module> e : this.modulesByProject.entrySet()) {
+                for (MavenReporter mavenReporter : e.getValue().reporters) {
+                    try {
+                        mavenReporter.postBuild( e.getValue().proxy ,e.getKey(), maven3Builder.listener);
+                    } catch ( InterruptedException|IOException x ) {
+                        x.printStackTrace();
                     }
                 }
             }
         }
 
+        private @CheckForNull File getLocalRepository(ExecutionEvent event) {
+            ArtifactRepository r = event.getSession().getLocalRepository();
+            return r == null || r.getBasedir() == null ? null : new File(r.getBasedir());
+        }
+
         /**
          * All {@link MavenProject}s in the current session, keyed by their names.
          */
@@ -503,14 +550,13 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
 
         private void recordProjectStarted(ExecutionEvent event) {
             MavenProject mavenProject = event.getProject();
-            List<MavenReporter> mavenReporters = getMavenReporters( mavenProject );
-
-            MavenBuildProxy2 mavenBuildProxy2 = getMavenBuildProxy2( mavenProject );
-            if (mavenBuildProxy2 == null) return;
+            Module module = getModule( mavenProject );
+            if (module == null) return;
 
+            MavenBuildProxy2 mavenBuildProxy2 = module.proxy;
             mavenBuildProxy2.start();
 
-            for (MavenReporter mavenReporter : fixNull(mavenReporters)) {
+            for (MavenReporter mavenReporter : module.reporters) {
                 try {
                     mavenReporter.enterModule( mavenBuildProxy2 ,mavenProject, maven3Builder.listener);
                 } catch ( InterruptedException|IOException e ) {
@@ -538,13 +584,13 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
         }
 
         private void recordProjectEnded(ExecutionEvent event, Result result) {
-            MavenBuildProxy2 mavenBuildProxy2 = getMavenBuildProxy2( event.getProject() );
-            if (mavenBuildProxy2 == null) return;
+            Module module = getModule( event.getProject() );
+            if (module == null) return;
+            awaitQueuedCallbacks(module);
+            MavenBuildProxy2 mavenBuildProxy2 = module.proxy;
             mavenBuildProxy2.setResult(result);
 
-            List<MavenReporter> mavenReporters = getMavenReporters( event.getProject() );
-
-            for ( MavenReporter mavenReporter : fixNull(mavenReporters)) {
+            for ( MavenReporter mavenReporter : module.reporters) {
                 try {
                     mavenReporter.postBuild( mavenBuildProxy2, event.getProject(), maven3Builder.listener);
                 } catch ( InterruptedException|IOException e ) {
@@ -568,26 +614,39 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
          */
         public void mojoStarted( ExecutionEvent event ) {
             debug( "mojoStarted " + mojoExec( event ) );
-            recordMojoStarted(event);
+            recordMojoStarted(event, false);
             this.eventLogger.mojoStarted( event );
         }
 
-        private void recordMojoStarted(ExecutionEvent event) {
-            long startTime = initMojoStartTime( event.getProject() );
+        /**
+         * @param fork
+         *      Whether the event is about the forked life cycle of the mojo rather than the mojo itself.
+         */
+        private void recordMojoStarted(ExecutionEvent event, boolean fork) {
+            long startTime = System.currentTimeMillis();
+            rememberClassWorld(event.getMojoExecution());
 
             MavenProject mavenProject = event.getProject();
-            MojoInfo mojoInfo = new MojoInfo(event,startTime);
+            Module module = getModule( mavenProject );
+            if (module == null) return;
+            module.startTimes(fork).put(event.getMojoExecution(), startTime);
 
-            List<MavenReporter> mavenReporters = getMavenReporters( mavenProject );
+            MojoInfo mojoInfo = new MojoInfo(event,startTime);
+            MavenBuildProxy2 mavenBuildProxy2 = module.proxy;
 
-            MavenBuildProxy2 mavenBuildProxy2 = getMavenBuildProxy2( mavenProject );
-            if (mavenBuildProxy2 == null) return;
+            if (module.preExecuteAfterQueue) {
+                // a reporter doesn't see the next mojo before it's done with the previous one
+                awaitQueuedCallbacks(module);
+            }
 
-            for (MavenReporter mavenReporter : fixNull(mavenReporters)) {
+            for (MavenReporter mavenReporter : module.preExecuteReporters) {
+                long start = System.nanoTime();
                 try {
                     mavenReporter.preExecute( mavenBuildProxy2, mavenProject, mojoInfo, maven3Builder.listener);
                 } catch ( InterruptedException|IOException e ) {
                     e.printStackTrace();
+                } finally {
+                    maven3Builder.overhead.reporterCall(mavenReporter, System.nanoTime() - start);
                 }
             }
         }
@@ -597,51 +656,66 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
          */
         public void mojoSucceeded( ExecutionEvent event ) {
             debug("mojoSucceeded " + mojoExec(event));
-            recordMojoEnded(event,null);
+            recordMojoEnded(event,null,false);
             this.eventLogger.mojoSucceeded( event );
         }
 
-        private void recordMojoEnded(ExecutionEvent event, Exception problem) {
+        private void recordMojoEnded(ExecutionEvent event, Exception problem, boolean fork) {
             MavenProject mavenProject = event.getProject();
-            MojoInfo mojoInfo = new MojoInfo(event,getMojoStartTime(event.getProject()));
-
-            recordExecutionTime(event,mojoInfo);
+            Module module = getModule( mavenProject );
+            if (module == null) return;
 
-            List<MavenReporter> mavenReporters = getMavenReporters( mavenProject );
+            Long startTime = module.startTimes(fork).remove(event.getMojoExecution());
+            MojoInfo mojoInfo = new MojoInfo(event,startTime == null ? 0 : startTime);
 
-            MavenBuildProxy2 mavenBuildProxy2 = getMavenBuildProxy2( mavenProject );
-            if (mavenBuildProxy2 == null) return;
+            recordExecutionTime(module,mojoInfo,startTime);
 
-            mavenBuildProxy2.setExecutedMojos( this.executedMojosPerModule.get( new ModuleName(event) ) );
+            for (MavenReporter mavenReporter : module.postExecuteReporters) {
+                if (module.queue != null && !mavenReporter.requiresSynchronousExecution()) {
+                    module.queue.submit(() -> postExecute(module, mavenReporter, mavenProject, mojoInfo, problem));
+                } else {
+                    postExecute(module, mavenReporter, mavenProject, mojoInfo, problem);
+                }
+            }
+        }
 
-            for (MavenReporter mavenReporter : fixNull(mavenReporters)) {
-                try {
-                    mavenReporter.postExecute( mavenBuildProxy2, mavenProject, mojoInfo, maven3Builder.listener, problem);
-                    if (mavenReporter instanceof TestFailureDetector) {
-                        if(((TestFailureDetector) mavenReporter).hasTestFailures()) {
-                            hasTestFailures.compareAndSet(false, true);
-                        }
+        private void postExecute(Module module, MavenReporter mavenReporter, MavenProject mavenProject, MojoInfo mojoInfo, Exception problem) {
+            long start = System.nanoTime();
+            try {
+                mavenReporter.postExecute( module.proxy, mavenProject, mojoInfo, maven3Builder.listener, problem);
+                if (mavenReporter instanceof TestFailureDetector) {
+                    if(((TestFailureDetector) mavenReporter).hasTestFailures()) {
+                        hasTestFailures.compareAndSet(false, true);
                     }
-                } catch ( InterruptedException e ) {
-                    e.printStackTrace();
-                } catch ( IOException e ) {
-                    mavenBuildProxy2.setResult(Result.FAILURE);
-                    e.printStackTrace();
                 }
+            } catch ( InterruptedException e ) {
+                e.printStackTrace();
+            } catch ( IOException e ) {
+                module.proxy.setResult(Result.FAILURE);
+                e.printStackTrace();
+            } finally {
+                maven3Builder.overhead.reporterCall(mavenReporter, System.nanoTime() - start);
             }
         }
 
         /**
-         * Record how long it took to run this mojo.
+         * Waits for the {@link MavenReporter#postExecute} calls queued for the module so far.
          */
-        private void recordExecutionTime(ExecutionEvent event, MojoInfo mojoInfo) {
-            MavenProject p = event.getProject();
-            List<ExecutedMojo> m = executedMojosPerModule.get(new ModuleName(p));
-            if (m==null)    // defensive check
-                executedMojosPerModule.put(new ModuleName(p), m=new CopyOnWriteArrayList<>());
+        private void awaitQueuedCallbacks(Module module) {
+            if (module.queue == null) return;
+            try {
+                for (Throwable t : module.queue.drain())
+                    t.printStackTrace(maven3Builder.listener.error(Messages.MavenBuilder_AsyncFailed()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
 
-            Long startTime = getMojoStartTime( event.getProject() );
-            m.add(new ExecutedMojo( mojoInfo, startTime == null ? 0 : System.currentTimeMillis() - startTime ));
+        /**
+         * Record how long it took to run this mojo.
+         */
+        private void recordExecutionTime(Module module, MojoInfo mojoInfo, @CheckForNull Long startTime) {
+            module.proxy.addExecutedMojo(new ExecutedMojo( mojoInfo, startTime == null ? 0 : System.currentTimeMillis() - startTime ));
         }
 
         /**
@@ -649,7 +723,7 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
          */
         public void mojoFailed( ExecutionEvent event ) {
             debug("mojoFailed " + mojoExec(event));
-            recordMojoEnded(event, getExecutionException(event));
+            recordMojoEnded(event, getExecutionException(event), false);
             this.eventLogger.mojoFailed( event );
         }
 
@@ -657,6 +731,34 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
             LOGGER.fine(msg);
         }
 
+        private void rememberClassWorld(MojoExecution execution) {
+            if (classWorld != null || execution == null || execution.getMojoDescriptor() == null) return;
+            ClassRealm realm = execution.getMojoDescriptor().getPluginDescriptor().getClassRealm();
+            if (realm != null)
+                classWorld = realm.getWorld();
+        }
+
+        /**
+         * Maven disposes its container at the end of the launch, which normally takes the plugin,
+         * extension and project realms with it. Anything that survives (e.g. because an extension
+         * failed to dispose) would otherwise accumulate in a reused Maven JVM, so sweep it up here.
+         */
+        void disposeBuildRealms() {
+            if (classWorld == null) return;
+            for (ClassRealm realm : new ArrayList<>(classWorld.getRealms())) {
+                String id = realm.getId();
+                if (id.startsWith("plugin>") || id.startsWith("extension>") || id.startsWith("project>")) {
+                    try {
+                        classWorld.disposeRealm(id);
+                        debug("Disposed left-over realm " + id);
+                    } catch (NoSuchRealmException e) {
+                        // already gone
+                    }
+                }
+            }
+            classWorld = null;
+        }
+
 
         private Exception getExecutionException(ExecutionEvent event) {
             // https://issues.jenkins.io/browse/JENKINS-8493
@@ -674,7 +776,7 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
          */
         public void forkStarted( ExecutionEvent event ) {
             LOGGER.fine("mojo forkStarted " + mojoExec(event));
-            recordMojoStarted(event);
+            recordMojoStarted(event, true);
         }
 
         /**
@@ -682,7 +784,7 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
          */
         public void forkSucceeded( ExecutionEvent event ) {
             LOGGER.fine("mojo forkSucceeded " + mojoExec(event));
-            recordMojoEnded(event,null);
+            recordMojoEnded(event,null,true);
         }
 
         /**
@@ -690,7 +792,7 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
          */
         public void forkFailed( ExecutionEvent event ) {
             LOGGER.fine("mojo forkFailed " + mojoExec(event));
-            recordMojoEnded(event, getExecutionException(event));
+            recordMojoEnded(event, getExecutionException(event), true);
         }
 
         /*
@@ -723,6 +825,67 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
 //            recordProjectEnded(event,Result.FAILURE);
         }
 
+        /**
+         * What {@link MavenExecutionListener} keeps about a module of the build.
+         */
+        private static final class Module implements Serializable {
+            private static final long serialVersionUID = 1L;
+
+            final FilterImpl proxy;
+            final List<MavenReporter> reporters;
+            /**
+             * Those of {@link #reporters} that look at each mojo, as most only act once per module.
+             */
+            final List<MavenReporter> preExecuteReporters = new ArrayList<>();
+            final List<MavenReporter> postExecuteReporters = new ArrayList<>();
+            /**
+             * Where {@link MavenReporter#postExecute} calls go, unless the reporter requires synchronous execution.
+             * Null if they are all synchronous.
+             */
+            final transient ReporterQueue queue;
+            /**
+             * Whether one of the reporters both looks at mojos before they run and has
+             * {@link MavenReporter#postExecute} calls queued.
+             */
+            final boolean preExecuteAfterQueue;
+            /**
+             * When the mojos running in this module started, by execution. A forked life cycle is timed apart
+             * from the mojo that forks it, as both are running at the same time.
+             */
+            final transient Map<MojoExecution,Long> mojoStartTimes = new ConcurrentHashMap<>();
+            final transient Map<MojoExecution,Long> forkStartTimes = new ConcurrentHashMap<>();
+
+            Module(FilterImpl proxy, @CheckForNull List<MavenReporter> reporters, @CheckForNull ReporterQueue queue) {
+                this.proxy = proxy;
+                this.queue = queue;
+                this.reporters = reporters != null ? reporters : Collections.emptyList();
+                for (MavenReporter r : this.reporters) {
+                    if (overrides(r, "preExecute", MavenBuildProxy.class, MavenProject.class, MojoInfo.class, BuildListener.class))
+                        preExecuteReporters.add(r);
+                    if (r instanceof TestFailureDetector || overrides(r, "postExecute", MavenBuildProxy.class, MavenProject.class, MojoInfo.class, BuildListener.class, Throwable.class))
+                        postExecuteReporters.add(r);
+                }
+                boolean preExecuteAfterQueue = false;
+                if (queue != null) {
+                    for (MavenReporter r : preExecuteReporters)
+                        preExecuteAfterQueue |= postExecuteReporters.contains(r) && !r.requiresSynchronousExecution();
+                }
+                this.preExecuteAfterQueue = preExecuteAfterQueue;
+            }
+
+            Map<MojoExecution,Long> startTimes(boolean fork) {
+                return fork ? forkStartTimes : mojoStartTimes;
+            }
+
+            private static boolean overrides(MavenReporter r, String name, Class<?>... parameterTypes) {
+                try {
+                    return r.getClass().getMethod(name, parameterTypes).getDeclaringClass() != MavenReporter.class;
+                } catch (NoSuchMethodException e) {
+                    return true;
+                }
+            }
+        }
+
         private String gav(MavenProject p) {
             return String.format("%s:%s:%s", p.getGroupId(), p.getArtifactId(), p.getVersion());
         }
@@ -739,6 +902,12 @@ public class Maven3Builder extends AbstractMavenBuilder implements DelegatingCal
 
     private static final Logger LOGGER = Logger.getLogger(Maven3Builder.class.getName());
 
+    /**
+     * Set to false to call {@link MavenReporter#postExecute} on Maven's build thread for all reporters.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static boolean ASYNC_REPORTERS = Boolean.parseBoolean(System.getProperty(Maven3Builder.class.getName()+".asyncReporters", "true"));
+
     @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "TODO needs triage")
     public static boolean DUMP_PERFORMANCE_COUNTERS = Boolean.getBoolean(Maven3Builder.class.getName()+".dumpPerformanceCounters");
 }
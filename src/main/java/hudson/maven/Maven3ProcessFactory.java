@@ -29,6 +29,7 @@ import hudson.Launcher;
 import hudson.model.BuildListener;
 import hudson.model.Run.RunnerAbortedException;
 import hudson.model.TaskListener;
+import hudson.remoting.Callable;
 import hudson.remoting.Channel;
 import hudson.tasks.Maven.MavenInstallation;
 import jenkins.security.MasterToSlaveCallable;
@@ -55,12 +56,17 @@ public class Maven3ProcessFactory extends AbstractMavenProcessFactory implements
 
     @Override
     protected String getMavenAgentClassPath(MavenInstallation mvn, FilePath slaveRoot, BuildListener listener) throws IOException, InterruptedException {
-        String classWorldsJar = getLauncher().getChannel().call(new GetClassWorldsJar(mvn.getHome(),listener));
+        String classWorldsJar = getClassWorldsJar(mvn, listener);
         
         return classPathEntry(slaveRoot, Maven3Main.class, "maven3-agent", listener) +
             (getLauncher().isUnix()?":":";")+classWorldsJar;
     }
     
+    @Override
+    protected Callable<String,IOException> getClassWorldsJarLocator(MavenInstallation mvn, TaskListener listener) {
+        return new GetClassWorldsJar(mvn.getHome(),listener);
+    }
+
     @Override
     protected String getMainClassName() {
         return Maven3Main.class.getName();
@@ -84,6 +84,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
@@ -120,13 +122,24 @@ public class MavenBuild extends AbstractMavenBuild<MavenModule,MavenBuild> {
     /*package*/ List<MavenProjectActionBuilder> projectActionReporters;
 
     /**
-     * {@link ExecutedMojo}s that record what was run.
-     * Null until some time before the build completes,
-     * or if this build is performed in earlier versions of Hudson.
+     * {@link ExecutedMojo}s that record what was run, as {@code build.xml} of earlier versions kept them.
+     * These builds get their mojos moved to {@link #EXECUTED_MOJOS} when they are loaded.
      * @since 1.98.
      */
     private List<ExecutedMojo> executedMojos;
 
+    /**
+     * {@link ExecutedMojo}s recorded while the build runs, until the build is saved after it completes.
+     * A synchronized list the module appends to, so readers take a {@link #snapshot(List)} of it.
+     */
+    private transient volatile List<ExecutedMojo> recordedMojos;
+
+    /**
+     * {@link ExecutedMojo}s as last read from or written to {@link #EXECUTED_MOJOS}.
+     * Only the "Executed Mojos" page and a few reports need them, so they go when memory gets short.
+     */
+    private transient volatile Reference<List<ExecutedMojo>> loadedMojos;
+
     public MavenBuild(MavenModule job) throws IOException {
         super(job);
     }
@@ -270,10 +283,82 @@ public class MavenBuild extends AbstractMavenBuild<MavenModule,MavenBuild> {
     }
 
     public List<ExecutedMojo> getExecutedMojos() {
-        if(executedMojos==null)
+        List<ExecutedMojo> mojos = recordedMojos;
+        if(mojos!=null)
+            mojos = snapshot(mojos);
+        else
+            mojos = loadExecutedMojos();
+        if(mojos==null)
             return Collections.emptyList();
         else
-            return Collections.unmodifiableList(executedMojos);
+            return Collections.unmodifiableList(mojos);
+    }
+
+    /**
+     * Copies the mojos recorded so far, as the module may still be adding to them.
+     */
+    private static List<ExecutedMojo> snapshot(List<ExecutedMojo> mojos) {
+        synchronized (mojos) {
+            return new ArrayList<>(mojos);
+        }
+    }
+
+    private @CheckForNull List<ExecutedMojo> loadExecutedMojos() {
+        Reference<List<ExecutedMojo>> ref = loadedMojos;
+        List<ExecutedMojo> mojos = ref!=null ? ref.get() : null;
+        if(mojos!=null)
+            return mojos;
+        if(executedMojos!=null)
+            return executedMojos;   // not migrated
+
+        File f = new File(getRootDir(),EXECUTED_MOJOS);
+        if(!f.exists())
+            return null;
+        try {
+            mojos = ExecutedMojo.Store.read(f);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load executed mojos of "+this, e);
+            return null;
+        }
+        loadedMojos = new SoftReference<>(mojos);
+        return mojos;
+    }
+
+    /**
+     * Also writes the executed mojos recorded so far to {@link #EXECUTED_MOJOS}.
+     */
+    @Override
+    public synchronized void save() throws IOException {
+        List<ExecutedMojo> mojos = recordedMojos;
+        if(mojos!=null) {
+            mojos = snapshot(mojos);
+            try {
+                ExecutedMojo.Store.write(mojos, new File(getRootDir(),EXECUTED_MOJOS));
+                loadedMojos = new SoftReference<>(mojos);
+                if(!isBuilding())
+                    recordedMojos = null;
+            } catch (IOException e) {
+                // keep them in memory rather than lose the build record along with them
+                LOGGER.log(Level.WARNING, "Failed to save executed mojos of "+this, e);
+            }
+        }
+        super.save();
+    }
+
+    @Override
+    protected void onLoad() {
+        super.onLoad();
+        List<ExecutedMojo> mojos = executedMojos;
+        if(mojos!=null) {
+            try {
+                ExecutedMojo.Store.write(mojos, new File(getRootDir(),EXECUTED_MOJOS));
+                executedMojos = null;
+                loadedMojos = new SoftReference<>(mojos);
+                super.save();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to migrate executed mojos of "+this, e);
+            }
+        }
     }
 
     @Override
@@ -470,6 +555,18 @@ public class MavenBuild extends AbstractMavenBuild<MavenModule,MavenBuild> {
             throw new AssertionError();
         }
 
+        /**
+         * What {@link AbstractMavenBuilder.FilterImpl} can answer without asking.
+         */
+        @CheckForNull AbstractMavenBuilder.BuildContext getContext() {
+            FilePath ws = getWorkspace();
+            if (ws == null)
+                return null;
+            // the Maven JVM runs next to the workspace, so the path is good there
+            return new AbstractMavenBuilder.BuildContext(WorkspaceList.tempDir(ws).child("maven-reporters").getRemote(),
+                    getTimestamp(), isArchivingDisabled(), isSiteArchivingDisabled());
+        }
+
         private FilePath transferArea() {
             FilePath ws = getWorkspace();
             Channel mavenChannel = Channel.current();
@@ -594,7 +691,17 @@ public class MavenBuild extends AbstractMavenBuild<MavenModule,MavenBuild> {
         }
 
         public void setExecutedMojos(List<ExecutedMojo> executedMojos) {
-            MavenBuild.this.executedMojos = executedMojos;
+            recordedMojos = executedMojos==null ? null : Collections.synchronizedList(new ArrayList<>(executedMojos));
+        }
+
+        public synchronized void addExecutedMojo(ExecutedMojo executedMojo) {
+            List<ExecutedMojo> mojos = recordedMojos;
+            if(mojos==null) {
+                List<ExecutedMojo> saved = loadExecutedMojos(); // the module build was already saved
+                mojos = Collections.synchronizedList(saved==null ? new ArrayList<>() : new ArrayList<>(saved));
+                recordedMojos = mojos;
+            }
+            mojos.add(executedMojo);
         }
 
         private Object writeReplace() {
@@ -954,8 +1061,12 @@ public class MavenBuild extends AbstractMavenBuild<MavenModule,MavenBuild> {
                 }
 
                 if (process != null) {
-                    if(normalExit)  process.recycle();
-                    else            process.discard();
+                    if(normalExit) {
+                        MavenProcessHealthAction health = process.recycle();
+                        if (health!=null)   addAction(health);
+                    } else {
+                        process.discard();
+                    }
                 }
 
                 // tear down in reverse order
@@ -1044,5 +1155,10 @@ public class MavenBuild extends AbstractMavenBuild<MavenModule,MavenBuild> {
      */
     public static boolean debug = false;
 
+    /**
+     * Name of the file in the build directory that holds {@link #getExecutedMojos()}.
+     */
+    static final String EXECUTED_MOJOS = "executedMojos.bin";
+
     private static final Logger LOGGER = Logger.getLogger(MavenBuild.class.getName());
 }
@@ -177,6 +177,17 @@ public interface MavenBuildProxy {
      */
     void setExecutedMojos(List<ExecutedMojo> executedMojos);
 
+    /**
+     * Records a mojo that just finished, after those recorded so far.
+     *
+     * <p>
+     * Unlike {@link #setExecutedMojos(List)}, only the new record goes over the wire,
+     * so a module can report its mojos as they run without resending the earlier ones each time.
+     * Does nothing by default, for implementations that only keep what {@link #setExecutedMojos(List)} reports.
+     */
+    default void addExecutedMojo(ExecutedMojo executedMojo) {
+    }
+
     interface BuildCallable<V,T extends Throwable> extends Serializable {
         /**
          * Performs computation and returns the result,
@@ -270,6 +281,10 @@ public interface MavenBuildProxy {
             core.setExecutedMojos(executedMojos);
         }
 
+        public void addExecutedMojo(ExecutedMojo executedMojo) {
+            core.addExecutedMojo(executedMojo);
+        }
+
         public MavenBuildInformation getMavenBuildInformation() {
             return core.getMavenBuildInformation();
         }
@@ -242,6 +242,14 @@ public class MavenModuleSet extends AbstractMavenProject<MavenModuleSet,MavenMod
      * If true, do not fingerprint consumed and produced artifacts.
      */
     private boolean fingerprintingDisabled = false;
+
+    /**
+     * If true, the Maven process of an aggregator style build is discarded at the end of the build
+     * instead of being kept around for reuse by the next build.
+     * It always is on Windows agents, where a process kept around would lock its working directory,
+     * the workspace, and keep it from being cleaned up or wiped out.
+     */
+    private boolean processReuseDisabled = false;
     
     /**
      * parameter for pom parsing by default <code>false</code> to be faster
@@ -609,6 +617,10 @@ public class MavenModuleSet extends AbstractMavenProject<MavenModuleSet,MavenMod
         return fingerprintingDisabled;
     }
 
+    public boolean isProcessReuseDisabled() {
+        return processReuseDisabled;
+    }
+
     public void setIncrementalBuild(boolean incrementalBuild) {
         this.incrementalBuild = incrementalBuild;
     }
@@ -682,6 +694,10 @@ public class MavenModuleSet extends AbstractMavenProject<MavenModuleSet,MavenMod
         this.fingerprintingDisabled = fingerprintingDisabled;
     }
 
+    public void setIsProcessReuseDisabled(boolean processReuseDisabled) {
+        this.processReuseDisabled = processReuseDisabled;
+    }
+
     public boolean isResolveDependencies()
     {
         return resolveDependencies;
@@ -1235,6 +1251,7 @@ public class MavenModuleSet extends AbstractMavenProject<MavenModuleSet,MavenMod
         archivingDisabled = req.hasParameter("maven.archivingDisabled");
         siteArchivingDisabled = req.hasParameter("maven.siteArchivingDisabled");
         fingerprintingDisabled = req.hasParameter("maven.fingerprintingDisabled");
+        processReuseDisabled = req.hasParameter("maven.processReuseDisabled");
         resolveDependencies = req.hasParameter( "maven.resolveDependencies" );
         processPlugins = req.hasParameter( "maven.processPlugins" );
         mavenValidationLevel = NumberUtils.toInt(req.getParameter("maven.validationLevel"), -1);
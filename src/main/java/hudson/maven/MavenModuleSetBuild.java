@@ -871,17 +871,34 @@ public class MavenModuleSetBuild extends AbstractMavenBuild<MavenModuleSet,Maven
                         }
                         
                         MavenProbeAction mpa=null;
+                        boolean normalExit = false;
                         try {
                             mpa = new MavenProbeAction(project, process.channel, MavenModuleSetBuild.this);
                             addAction(mpa);
+                            long sent = process.traffic.getSent(), received = process.traffic.getReceived();
+                            long logSize = getLogFile().length();
                             r = process.call(builder);
+                            normalExit = true;
+                            MavenOverheadAction overhead = process.call(new MavenOverheadAction.Fetch());
+                            if (overhead != null) {
+                                overhead.setTraffic(process.traffic.getSent() - sent, process.traffic.getReceived() - received,
+                                        getLogFile().length() - logSize);
+                                addAction(overhead);
+                            }
                             for (ProxyImpl2 proxy : proxies.values()) {
                                 proxy.performArchiving(launcher, listener);
                             }
                             return r;
                         } finally {
                             getActions().remove(mpa);
-                            process.discard();
+                            // a JVM kept on Windows would lock the workspace it runs in, and with it workspace cleanup
+                            if (normalExit && !project.isProcessReuseDisabled() && launcher.isUnix()) {
+                                MavenProcessHealthAction health = process.recycle();
+                                if (health!=null)
+                                    addAction(health);
+                            } else {
+                                process.discard();
+                            }
                             builder.end(launcher);
                         }
                         
@@ -1068,6 +1085,10 @@ public class MavenModuleSetBuild extends AbstractMavenBuild<MavenModuleSet,Maven
             for (MavenBuild b : getModuleLastBuilds().values())
                 b.save();
 
+            CriticalPathAction criticalPath = CriticalPathAction.of(getModuleLastBuilds());
+            if (criticalPath != null)
+                addAction(criticalPath);
+
             // at this point the result is all set, so ignore the return value
             if (!performAllBuildSteps(listener, project.getPublishers(), true))
                 setResult(FAILURE);
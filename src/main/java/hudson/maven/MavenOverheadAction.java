@@ -0,0 +1,300 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.maven;
+
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.remoting.Channel;
+import jenkins.security.MasterToSlaveCallable;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What it cost a module set build to have Jenkins watch Maven: calls to the controller,
+ * bytes over the channel to the Maven process, time spent in {@link MavenReporter}s, and bytes of log.
+ *
+ * <p>
+ * Counted in the Maven JVM while it builds, where each count is an increment and a clock read,
+ * then fetched once and completed on the controller with what only the controller knows.
+ *
+ * @see Maven3Builder
+ */
+@ExportedBean
+public class MavenOverheadAction implements Action, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * {@link BuildCallable}s that reporters sent to the controller, keyed by class name.
+     */
+    private final Map<String,Counter> remoteCalls = new HashMap<>();
+    /**
+     * Time spent in the callbacks of each {@link MavenReporter} class, keyed by class name.
+     */
+    private final Map<String,Counter> reporters = new HashMap<>();
+
+    private long overheadTime;
+    private long classLoadingCount;
+    private long classLoadingTime;
+    private long resourceLoadingCount;
+    private long resourceLoadingTime;
+    private long batches;
+
+    /**
+     * Counters of the channel when the build started, as a reused Maven JVM keeps adding to them across builds.
+     */
+    private transient long[] channelAtStart;
+
+    // filled in on the controller
+    private long bytesSent;
+    private long bytesReceived;
+    private long logBytes;
+
+    /**
+     * Counts a call to the controller.
+     *
+     * @param nanos
+     *      How long the caller waited for it, or for asynchronous calls its share of the round trip of their batch.
+     */
+    synchronized void remoteCall(BuildCallable<?,?> program, long nanos) {
+        remoteCalls.computeIfAbsent(program.getClass().getName(), Counter::new).add(nanos);
+    }
+
+    /**
+     * Counts a callback to a reporter.
+     */
+    synchronized void reporterCall(MavenReporter reporter, long nanos) {
+        reporters.computeIfAbsent(reporter.getClass().getName(), Counter::new).add(nanos);
+    }
+
+    /**
+     * Takes note of the counters of the channel before the build starts.
+     */
+    synchronized void start(Channel channel) {
+        if (channel != null)
+            channelAtStart = counters(channel);
+    }
+
+    private static long[] counters(Channel channel) {
+        return new long[] {
+                channel.classLoadingCount.get(), channel.classLoadingTime.get(),
+                channel.resourceLoadingCount.get(), channel.resourceLoadingTime.get()};
+    }
+
+    /**
+     * Records the totals of the Maven JVM at the end of the build.
+     *
+     * @param overheadTime
+     *      Nanoseconds Maven waited for Jenkins.
+     */
+    synchronized void finish(long overheadTime, Channel channel, AbstractMavenBuilder.BatchStatistics batchStatistics) {
+        this.overheadTime = TimeUnit.NANOSECONDS.toMillis(overheadTime);
+        if (channel != null) {
+            long[] now = counters(channel);
+            if (channelAtStart != null) {
+                for (int i = 0; i < now.length; i++)
+                    now[i] -= channelAtStart[i];
+            }
+            classLoadingCount = now[0];
+            classLoadingTime = TimeUnit.NANOSECONDS.toMillis(now[1]);
+            resourceLoadingCount = now[2];
+            resourceLoadingTime = TimeUnit.NANOSECONDS.toMillis(now[3]);
+        }
+        if (batchStatistics != null)
+            batches = batchStatistics.getBatches();
+    }
+
+    void setTraffic(long bytesSent, long bytesReceived, long logBytes) {
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.logBytes = logBytes;
+    }
+
+    /**
+     * Calls to the controller, most expensive first.
+     */
+    @Exported(inline=true)
+    public synchronized List<Counter> getRemoteCalls() {
+        return sorted(remoteCalls);
+    }
+
+    /**
+     * Reporters, most expensive first.
+     */
+    @Exported(inline=true)
+    public synchronized List<Counter> getReporters() {
+        return sorted(reporters);
+    }
+
+    private static List<Counter> sorted(Map<String,Counter> counters) {
+        List<Counter> r = new ArrayList<>(counters.values());
+        r.sort(Comparator.comparingLong(Counter::getTime).thenComparingLong(Counter::getCount).reversed());
+        return r;
+    }
+
+    /**
+     * Milliseconds Maven waited for Jenkins after it was done building.
+     */
+    @Exported
+    public long getOverheadTime() {
+        return overheadTime;
+    }
+
+    /**
+     * Classes the Maven JVM loaded from the controller.
+     */
+    @Exported
+    public long getClassLoadingCount() {
+        return classLoadingCount;
+    }
+
+    @Exported
+    public long getClassLoadingTime() {
+        return classLoadingTime;
+    }
+
+    @Exported
+    public long getResourceLoadingCount() {
+        return resourceLoadingCount;
+    }
+
+    @Exported
+    public long getResourceLoadingTime() {
+        return resourceLoadingTime;
+    }
+
+    /**
+     * Batches of asynchronous calls the Maven JVM sent to the controller.
+     */
+    @Exported
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Bytes sent to the Maven JVM during the build.
+     */
+    @Exported
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Bytes received from the Maven JVM during the build, including its log.
+     */
+    @Exported
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Bytes the build log grew by while Maven ran.
+     */
+    @Exported
+    public long getLogBytes() {
+        return logBytes;
+    }
+
+    public Api getApi() {
+        return new Api(this);
+    }
+
+    public String getIconFileName() {
+        return null;
+    }
+
+    public String getDisplayName() {
+        return Messages.MavenOverheadAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return "mavenOverhead";
+    }
+
+    /**
+     * Number of calls of one kind and the time they took.
+     */
+    @ExportedBean(defaultVisibility=2)
+    public static final class Counter implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private long count;
+        private long nanos;
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos) {
+            count++;
+            this.nanos += nanos;
+        }
+
+        @Exported
+        public String getName() {
+            return name;
+        }
+
+        @Exported
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Milliseconds the calls took in total.
+         */
+        @Exported
+        public long getTime() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+
+    /**
+     * The counters of the last build that ran in this Maven JVM, until {@link Fetch} takes them.
+     */
+    private static volatile MavenOverheadAction last;
+
+    static void setLast(MavenOverheadAction overhead) {
+        last = overhead;
+    }
+
+    /**
+     * Takes the counters of the last build from the Maven JVM.
+     */
+    static final class Fetch extends MasterToSlaveCallable<MavenOverheadAction,RuntimeException> {
+        private static final long serialVersionUID = 1L;
+
+        public MavenOverheadAction call() {
+            MavenOverheadAction r = last;
+            last = null;
+            return r;
+        }
+    }
+}
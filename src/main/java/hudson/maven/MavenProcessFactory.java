@@ -32,8 +32,10 @@ import hudson.maven.agent.Maven21Interceptor;
 import hudson.model.BuildListener;
 import hudson.model.Run.RunnerAbortedException;
 import hudson.model.TaskListener;
+import hudson.remoting.Callable;
 import hudson.remoting.Channel;
 import hudson.tasks.Maven.MavenInstallation;
+import jenkins.model.Jenkins;
 import jenkins.security.MasterToSlaveCallable;
 
 import java.io.File;
@@ -61,7 +63,7 @@ final class MavenProcessFactory extends AbstractMavenProcessFactory implements P
             classPathEntry(slaveRoot, Main.class, "maven-agent", listener)
                 + ( getLauncher().isUnix() ? ":" : ";" );
         if (slaveRoot == null) { // controller
-            String classWorldsJar = getLauncher().getChannel().call(new GetClassWorldsJar(mvn.getHome(),listener));
+            String classWorldsJar = getClassWorldsJar(mvn, listener);
             classPath += classWorldsJar;
         } else {
             // copy classworlds 1.1 for maven2 builds
@@ -69,19 +71,42 @@ final class MavenProcessFactory extends AbstractMavenProcessFactory implements P
             // TODO why would we not pick it up using GetClassWorldsJar like we do for M2 on controller or M3 anywhere?
             FilePath jar = slaveRoot.child("classworlds.jar");
             // copied to root of this JAR using dependency:generate-resources:
-            if (jar.exists() && jar.digest().equals(Util.getDigestOf(MavenProcessFactory.class.getClassLoader().getResourceAsStream("classworlds.jar")))) {
+            String digest = getClassWorldsDigest();
+            if (isCopied(jar.getName(), digest) || isUpToDate(slaveRoot, jar.getName(), digest)) {
                 listener.getLogger().println("classworlds.jar already up to date");
             } else {
                 try(InputStream in = MavenProcessFactory.class.getClassLoader().getResourceAsStream("classworlds.jar")) {
-                    jar.copyFrom(in);
+                    install(slaveRoot, jar.getName(), in, digest);
                 }
                 listener.getLogger().println("Copied classworlds.jar");
             }
+            copied(jar.getName(), digest);
             classPath += jar.getRemote();
         }
         return classPath;
     }
     
+    private static volatile String classWorldsDigest;
+
+    /**
+     * Digest of the bundled classworlds.jar, computed once.
+     */
+    private static String getClassWorldsDigest() throws IOException {
+        String digest = classWorldsDigest;
+        if (digest == null) {
+            try (InputStream in = MavenProcessFactory.class.getClassLoader().getResourceAsStream("classworlds.jar")) {
+                classWorldsDigest = digest = Util.getDigestOf(in);
+            }
+        }
+        return digest;
+    }
+
+    @Override
+    protected Callable<String,IOException> getClassWorldsJarLocator(MavenInstallation mvn, TaskListener listener) {
+        // only looked up on the controller, see above
+        return getCurrentNode()==Jenkins.get() ? new GetClassWorldsJar(mvn.getHome(),listener) : null;
+    }
+
     protected String getMainClassName() {
         return Main.class.getName();
     }
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.maven;
+
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.Action;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Records the state of the Maven JVM at the end of a build,
+ * and whether {@link ProcessCache} kept it for the next build.
+ *
+ * @see ProcessCache.MavenProcess#recycle()
+ */
+@ExportedBean
+public class MavenProcessHealthAction implements Action {
+    private final ProcessCache.Health health;
+    /**
+     * Number of builds the process has run, including this one.
+     */
+    private final int builds;
+    /**
+     * Why the process was discarded, or null if it was kept.
+     */
+    private final String discardReason;
+
+    MavenProcessHealthAction(ProcessCache.Health health, int builds, @CheckForNull String discardReason) {
+        this.health = health;
+        this.builds = builds;
+        this.discardReason = discardReason;
+    }
+
+    @Exported
+    public ProcessCache.Health getHealth() {
+        return health;
+    }
+
+    @Exported
+    public int getBuilds() {
+        return builds;
+    }
+
+    @Exported
+    public boolean isKept() {
+        return discardReason==null;
+    }
+
+    @Exported
+    public @CheckForNull String getDiscardReason() {
+        return discardReason;
+    }
+
+    public String getSummary() {
+        return isKept() ? Messages.MavenProcessHealthAction_Kept(builds) : Messages.MavenProcessHealthAction_Discarded(builds, discardReason);
+    }
+
+    public String getIconFileName() {
+        return null;
+    }
+
+    public String getDisplayName() {
+        return Messages.MavenProcessHealthAction_DisplayName();
+    }
+
+    public String getUrlName() {
+        return null;
+    }
+}
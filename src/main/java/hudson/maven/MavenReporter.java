@@ -187,6 +187,20 @@ public abstract class MavenReporter implements Describable<MavenReporter>, Exten
         return true;
     }
 
+    /**
+     * Whether {@link #postExecute} needs to run on Maven's build thread, before Maven goes on with the next mojo.
+     *
+     * <p>
+     * Reporters that return false get it called from a separate thread by Maven 3 builds,
+     * in the order the mojos of the module ran, and only {@link #preExecute} of the next mojo waits for it.
+     * All calls for a module are done before {@link #postBuild(MavenBuildProxy, MavenProject, BuildListener)}
+     * for that module. Only return false if {@link #postExecute} neither changes the outcome of the mojo
+     * nor looks at anything later mojos change, such as the {@link MavenProject} or the mojo itself.
+     */
+    public boolean requiresSynchronousExecution() {
+        return true;
+    }
+
     /**
      * Called after a build of one maven2 module is completed.
      *
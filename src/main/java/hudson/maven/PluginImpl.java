@@ -27,10 +27,29 @@ import hudson.Plugin;
 import hudson.PluginManager.PluginUpdateMonitor;
 import hudson.init.InitMilestone;
 import hudson.init.Initializer;
+import hudson.maven.agent.Main;
+import hudson.maven.agent.Maven21Interceptor;
 import hudson.maven.reporters.MavenArtifact;
 import hudson.model.Items;
 import hudson.model.Run;
+import hudson.remoting.Which;
 import hudson.util.LRUStringConverter;
+import jenkins.maven3.agent.Maven31Main;
+import jenkins.maven3.agent.Maven32Main;
+import jenkins.maven3.agent.Maven33Main;
+import jenkins.maven3.agent.Maven35Main;
+import org.jvnet.hudson.maven3.agent.Maven3Main;
+import org.jvnet.hudson.maven3.launcher.Maven31Interceptor;
+import org.jvnet.hudson.maven3.launcher.Maven32Interceptor;
+import org.jvnet.hudson.maven3.launcher.Maven33Interceptor;
+import org.jvnet.hudson.maven3.launcher.Maven35Interceptor;
+import org.jvnet.hudson.maven3.launcher.Maven3Launcher;
+import org.jvnet.hudson.maven3.listeners.HudsonMavenExecutionResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * @author huybrechts
@@ -58,4 +77,29 @@ public class PluginImpl extends Plugin {
         PluginUpdateMonitor.getInstance().ifPluginOlderThenReport("config-file-provider", "2.3", Messages.PluginImpl_updateConfiProvider());        
     }
 
+    /**
+     * Computes the digests of the jars copied to agents ahead of the first build,
+     * so that launching Maven doesn't have to.
+     */
+    @Initializer(after=InitMilestone.PLUGINS_STARTED)
+    public static void digestAgentJars() {
+        Class<?>[] representatives = {
+                Main.class, hudson.maven.agent.AbortException.class, Maven21Interceptor.class,
+                Maven3Main.class, Maven3Launcher.class, HudsonMavenExecutionResult.class,
+                Maven31Main.class, Maven31Interceptor.class, Maven32Main.class, Maven32Interceptor.class,
+                Maven33Main.class, Maven33Interceptor.class, Maven35Main.class, Maven35Interceptor.class,
+        };
+        for (Class<?> c : representatives) {
+            try {
+                File jar = Which.jarFile(c);
+                if (jar.isFile())
+                    AbstractMavenProcessFactory.getJarDigest(jar);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to compute the digest of the jar of " + c, e);
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(PluginImpl.class.getName());
+
 }
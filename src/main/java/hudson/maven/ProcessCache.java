@@ -23,27 +23,56 @@
  */
 package hudson.maven;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.FilePath;
 import hudson.Util;
 import hudson.Proc;
+import hudson.model.AsyncPeriodicWork;
 import hudson.model.BuildListener;
+import hudson.model.Computer;
 import hudson.model.JDK;
+import hudson.model.Node;
 import hudson.model.TaskListener;
 import hudson.remoting.Callable;
 import hudson.remoting.Channel;
 import hudson.remoting.VirtualChannel;
 import hudson.remoting.RequestAbortedException;
 import hudson.tasks.Maven.MavenInstallation;
+import hudson.tools.ToolInstallation;
 import hudson.util.DelegatingOutputStream;
 import jenkins.security.MasterToSlaveCallable;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -51,6 +80,13 @@ import java.util.logging.Level;
  * Hold on to launched Maven processes so that multiple builds
  * can reuse the same Maven JVM, which leads to improved performance.
  *
+ * <p>
+ * Idle processes are indexed by {@link Key} for each channel, so that looking one up
+ * doesn't need to scan or lock all the processes of that agent. When there are more idle processes
+ * than a node allows, the ones that are most expensive to keep are discarded first:
+ * those that have been idle the longest, have run the most builds, and use the most memory.
+ * The limits can be set per node with {@link ProcessCacheNodeProperty}.
+ *
  * @author Kohsuke Kawaguchi
  */
 public final class ProcessCache {
@@ -64,18 +100,150 @@ public final class ProcessCache {
          *      The output from the process should be sent to this output stream.
          */
         NewProcess newProcess(BuildListener listener,OutputStream out) throws IOException, InterruptedException;
+        /**
+         * Creates a new process ahead of time, outside of any build.
+         * Unlike {@link #newProcess(BuildListener, OutputStream)}, this must not write to the build log,
+         * nor pass on the environment of the current build, as the process may end up serving any build
+         * with the same {@link Key}.
+         */
+        NewProcess newStandbyProcess(OutputStream out) throws IOException, InterruptedException;
         String getMavenOpts();
         MavenInstallation getMavenInstallation(TaskListener listener) throws IOException, InterruptedException;
         JDK getJava(TaskListener listener) throws IOException, InterruptedException;
+        /**
+         * Working directory the process needs to be launched in,
+         * or null if the caller doesn't care.
+         */
+        FilePath getWorkDir();
+        /**
+         * Node the process runs on, used to look up {@link ProcessCacheNodeProperty}.
+         */
+        @CheckForNull Node getNode();
     }
 
     public static class NewProcess {
         public final Channel channel;
         public final Proc proc;
+        /**
+         * Bytes that went over {@link #channel}.
+         */
+        final Traffic traffic;
 
         public NewProcess(Channel channel, Proc proc) {
+            this(channel, proc, new Traffic());
+        }
+
+        NewProcess(Channel channel, Proc proc, Traffic traffic) {
             this.channel = channel;
             this.proc = proc;
+            this.traffic = traffic;
+        }
+    }
+
+    /**
+     * Counts the bytes sent to and received from a Maven process.
+     */
+    static final class Traffic {
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong received = new AtomicLong();
+
+        long getSent() {
+            return sent.get();
+        }
+
+        long getReceived() {
+            return received.get();
+        }
+
+        InputStream count(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0)
+                        received.incrementAndGet();
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0)
+                        received.addAndGet(n);
+                    return n;
+                }
+            };
+        }
+
+        OutputStream count(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    sent.incrementAndGet();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    sent.addAndGet(len);
+                }
+            };
+        }
+    }
+
+    /**
+     * What a cached process has to match to be handed out: MAVEN_OPTS, Maven and JDK.
+     * The working directory is checked separately, because a caller may not care about it.
+     */
+    static final class Key {
+        private final String mavenOpts;
+        private final String maven;
+        private final String jdk;
+
+        Key(String mavenOpts, MavenInstallation installation, JDK jdk) {
+            this.mavenOpts = Util.fixNull(mavenOpts);
+            this.maven = describe(installation);
+            this.jdk = describe(jdk);
+        }
+
+        /**
+         * {@link MavenInstallation} and {@link JDK} are recreated by every {@code forNode}/{@code forEnvironment} call,
+         * so compare what they resolve to rather than their identity.
+         */
+        private static String describe(ToolInstallation tool) {
+            return tool==null ? null : tool.getName()+'\u0000'+Util.fixNull(tool.getHome());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this==o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return mavenOpts.equals(that.mavenOpts) && Objects.equals(maven, that.maven) && Objects.equals(jdk, that.jdk);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mavenOpts, maven, jdk);
+        }
+    }
+
+    /**
+     * Limits in effect for one channel.
+     */
+    static final class Limits {
+        final int maxProcess;
+        final int maxAge;
+        /**
+         * In bytes, 0 for unlimited.
+         */
+        final long maxResidentSize;
+
+        Limits(int maxProcess, int maxAge, long maxResidentSize) {
+            this.maxProcess = maxProcess;
+            this.maxAge = maxAge;
+            this.maxResidentSize = maxResidentSize;
         }
     }
 
@@ -84,15 +252,19 @@ public final class ProcessCache {
          * Channel connected to the maven process.
          */
         final Channel channel;
-        /**
-         * MAVEN_OPTS of this VM.
-         */
-        private final String mavenOpts;
+        private final Key key;
         private final PerChannel parent;
         final Proc proc;
-        private final MavenInstallation installation;
-        private final JDK jdk;
+        /**
+         * Remote path of the working directory this process was launched in,
+         * or null if it was launched without one.
+         */
+        private final String workDir;
         private final RedirectableOutputStream output;
+        /**
+         * Bytes that went over {@link #channel} since the process started.
+         */
+        final Traffic traffic;
         /**
          * System properties captured right after the process is created.
          * Each time the process is reused, the system properties are reset,
@@ -100,45 +272,153 @@ public final class ProcessCache {
          */
         private final Properties systemProperties;
 
-        private int age = 0;
+        private volatile int age = 0;
 
-        MavenProcess(PerChannel parent, String mavenOpts, MavenInstallation installation, JDK jdk, NewProcess np, RedirectableOutputStream output) throws IOException, InterruptedException {
+        /**
+         * When this process was last put back into the cache.
+         */
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        /**
+         * Resident memory of the process in bytes as of the last time it was put back, 0 if unknown.
+         */
+        private volatile long residentSize;
+
+        /**
+         * State of the process right after it started, after its first build, and after its last build.
+         */
+        private final Health baseline;
+        private volatile Health firstBuild, previous;
+
+        MavenProcess(PerChannel parent, Key key, FilePath workDir, NewProcess np, RedirectableOutputStream output) throws IOException, InterruptedException {
+            this(parent, key, workDir, np, output, np.channel.call(new GetSystemProperties()), np.channel.call(new GetHealth()));
+        }
+
+        /**
+         * @param systemProperties
+         *      System properties of the process right after it started.
+         * @param baseline
+         *      Health of the process right after it started, if known.
+         */
+        MavenProcess(PerChannel parent, Key key, FilePath workDir, NewProcess np, RedirectableOutputStream output,
+                     Properties systemProperties, @CheckForNull Health baseline) {
             this.parent = parent;
-            this.mavenOpts = mavenOpts;
+            this.key = key;
+            this.workDir = workDir!=null ? workDir.getRemote() : null;
             this.channel = np.channel;
             /* Probably not currently useful for testing; could add if we did not want plugins accidentally loading 7+ bytecode into Maven JVM:
             short javaLevel = 6; // cf. jenkins/pom.xml#java.level
             channel.setMaximumBytecodeLevel(javaLevel);
             */
             this.proc = np.proc;
-            this.installation = installation;
-            this.jdk = jdk;
+            this.traffic = np.traffic;
             this.output = output;
-            this.systemProperties = channel.call(new GetSystemProperties());
+            this.systemProperties = systemProperties;
+            this.baseline = baseline;
         }
 
         public String getMavenOpts() {
-            return mavenOpts;
+            return key.mavenOpts;
         }
-        
-        boolean matches(String mavenOpts,MavenInstallation installation, JDK jdk) {
-            return Util.fixNull(this.mavenOpts).equals(Util.fixNull(mavenOpts))
-                && this.installation==installation
-                && this.jdk==jdk;
+
+        /**
+         * @param workDir
+         *      The working directory the caller needs, or null if any will do.
+         *      The current directory of a JVM cannot be changed once it's started,
+         *      so a process can only be handed to a caller that asks for the directory it was launched in.
+         */
+        boolean matches(FilePath workDir) {
+            return workDir==null || workDir.getRemote().equals(this.workDir);
         }
 
-        public void recycle() throws IOException {
-            if(age>=MAX_AGE || maxProcess==0)
+        /**
+         * Puts this process back into the cache after a successful build, unless it is worn out.
+         *
+         * <p>
+         * The process is asked about its memory, garbage collection, classes and threads,
+         * and discarded if it looks bloated or leaking. Processes in good shape are kept
+         * for longer than {@link Limits#maxAge} builds.
+         *
+         * @return
+         *      What was decided and why, to be recorded on the build,
+         *      or null if the process wasn't asked.
+         */
+        public @CheckForNull MavenProcessHealthAction recycle() throws IOException {
+            Limits limits = parent.limits;
+            if(limits.maxProcess==0) {
                 discard();
-            else {
-                output.set(OutputStream.nullOutputStream());
-                // make room for the new process and reuse.
-                synchronized(parent.processes) {
-                    while(parent.processes.size()>=maxProcess)
-                        parent.processes.removeFirst().discard();
-                    parent.processes.add(this);
-                }
+                return null;
+            }
+
+            Health h;
+            try {
+                h = call(new GetHealth());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                discard();
+                return null;
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Maven process " + channel + " didn't respond after the build", e);
+                discard();
+                return null;
+            }
+
+            String problem = diagnose(h, limits);
+            if (firstBuild==null)
+                firstBuild = h;
+            previous = h;
+            residentSize = h.residentSize;
+            MavenProcessHealthAction a = new MavenProcessHealthAction(h, age+1, problem);
+            if (problem!=null) {
+                LOGGER.log(Level.FINE, "Discarding Maven process {0}: {1}", new Object[] {channel, problem});
+                discard();
+                return a;
             }
+
+            output.set(OutputStream.nullOutputStream());
+            lastUsed = System.currentTimeMillis();
+            parent.offer(this);
+            return a;
+        }
+
+        /**
+         * @return
+         *      Why this process shouldn't be reused, or null if it's fine.
+         */
+        private @CheckForNull String diagnose(Health h, Limits limits) {
+            if (limits.maxResidentSize>0 && h.residentSize>limits.maxResidentSize)
+                return Messages.ProcessCache_Health_Resident(h.residentSize/MB, limits.maxResidentSize/MB);
+
+            int heap = h.getLiveHeapPercentage();
+            if (heap>HEAP_LIMIT)
+                return Messages.ProcessCache_Health_Heap(heap);
+
+            Health since = previous!=null ? previous : baseline;
+            int gc = since!=null ? h.getGcPercentageSince(since) : 0;
+            if (gc>GC_LIMIT)
+                return Messages.ProcessCache_Health_GC(gc);
+
+            if (baseline!=null && h.threadCount-baseline.threadCount>THREAD_LEAK)
+                return Messages.ProcessCache_Health_Threads(h.threadCount, h.threadCount-baseline.threadCount);
+
+            if (firstBuild!=null && h.loadedClassCount-firstBuild.loadedClassCount>firstBuild.loadedClassCount*CLASS_GROWTH_LIMIT/100)
+                return Messages.ProcessCache_Health_Classes(h.loadedClassCount, h.loadedClassCount-firstBuild.loadedClassCount);
+
+            // a process that is far from every limit gets to run more builds
+            boolean healthy = heap<=HEAP_LIMIT/2 && gc<=GC_LIMIT/2;
+            int maxAge = healthy ? limits.maxAge*HEALTHY_AGE_FACTOR : limits.maxAge;
+            if (age>=maxAge)
+                return Messages.ProcessCache_Health_Age(age+1);
+
+            return null;
+        }
+
+        /**
+         * How expensive it is to keep this process around, relative to the others.
+         * Idle time makes this LRU at heart; processes that have run more builds or grew larger go first.
+         */
+        double evictionCost(long now, Limits limits) {
+            return ProcessCache.evictionCost(now - lastUsed, age, residentSize, limits);
         }
 
         /**
@@ -174,29 +454,142 @@ public final class ProcessCache {
         }
     }
 
-    static class PerChannel {
+    /**
+     * Idle processes of one channel.
+     */
+    final class PerChannel {
+        /**
+         * Idle processes by what they can be used for, most recently used last.
+         */
+        private final ConcurrentHashMap<Key,ConcurrentLinkedDeque<MavenProcess>> processes = new ConcurrentHashMap<>();
+        /**
+         * Number of processes in {@link #processes}.
+         */
+        private final AtomicInteger size = new AtomicInteger();
+        /**
+         * True while a standby process is being started for this channel.
+         */
+        private final AtomicBoolean spawning = new AtomicBoolean();
+
+        private volatile Limits limits = defaultLimits;
+
+        private ConcurrentLinkedDeque<MavenProcess> of(Key key) {
+            return processes.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+        }
+
+        /**
+         * Takes out the most recently used idle process that can serve the request, if any.
+         */
+        @CheckForNull MavenProcess poll(Key key, FilePath workDir) {
+            ConcurrentLinkedDeque<MavenProcess> q = processes.get(key);
+            if (q==null)
+                return null;
+            for (Iterator<MavenProcess> itr = q.descendingIterator(); itr.hasNext();) {
+                MavenProcess p = itr.next();
+                if (p.matches(workDir) && q.removeFirstOccurrence(p)) {
+                    size.decrementAndGet();
+                    return p;
+                }
+            }
+            return null;
+        }
+
+        int count(Key key, FilePath workDir) {
+            ConcurrentLinkedDeque<MavenProcess> q = processes.get(key);
+            int n = 0;
+            if (q!=null) {
+                for (MavenProcess p : q) {
+                    if (p.matches(workDir))
+                        n++;
+                }
+            }
+            return n;
+        }
+
         /**
-         * Cached processes.
+         * Adds an idle process, making room for it if the node's limit is exceeded.
          */
-        private final LinkedList<MavenProcess> processes = new LinkedList<>();
+        void offer(MavenProcess p) {
+            of(p.key).offerLast(p);
+            size.incrementAndGet();
+            evictOverLimit();
+        }
+
+        /**
+         * Takes the given process out of the cache if it's still there,
+         * so that nobody else can use it in the mean time.
+         */
+        boolean remove(MavenProcess p) {
+            ConcurrentLinkedDeque<MavenProcess> q = processes.get(p.key);
+            if (q!=null && q.removeFirstOccurrence(p)) {
+                size.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private void evictOverLimit() {
+            while (size.get()>limits.maxProcess) {
+                MavenProcess victim = null;
+                double worst = -1;
+                long now = System.currentTimeMillis();
+                for (ConcurrentLinkedDeque<MavenProcess> q : processes.values()) {
+                    for (MavenProcess p : q) {
+                        double cost = p.evictionCost(now, limits);
+                        if (cost>worst) {
+                            worst = cost;
+                            victim = p;
+                        }
+                    }
+                }
+                if (victim==null)
+                    return;
+                if (remove(victim)) {
+                    LOGGER.log(Level.FINE, "Evicting Maven process {0} to stay within {1} cached processes", new Object[] {victim.channel, limits.maxProcess});
+                    victim.discard();
+                }
+            }
+        }
+
+        /**
+         * Picks up the limits configured for the node.
+         */
+        void configure(@CheckForNull Node node) {
+            ProcessCacheNodeProperty p = node!=null ? node.getNodeProperty(ProcessCacheNodeProperty.class) : null;
+            limits = p!=null
+                    ? new Limits(p.getMaxProcesses(), p.getMaxAge(), p.getMaxResidentMemory()*1024L*1024L)
+                    : defaultLimits;
+        }
     }
 
-    // use WeakHashMap to avoid keeping VirtualChannel in memory.
-    private final Map<VirtualChannel,PerChannel> cache = new WeakHashMap<>();
-    private final int maxProcess;
+    /**
+     * Keyed by the channel to the node, removed once the channel is closed.
+     */
+    private final ConcurrentHashMap<VirtualChannel,PerChannel> cache = new ConcurrentHashMap<>();
+    private final Limits defaultLimits;
 
     /**
      * @param maxProcess
-     *      Number of maximum processes to cache.
+     *      Number of maximum processes to cache, unless the node says otherwise.
      */
     protected ProcessCache(int maxProcess) {
-        this.maxProcess = maxProcess;
+        this.defaultLimits = new Limits(maxProcess, MAX_AGE, 0);
     }
 
-    private synchronized PerChannel get(VirtualChannel owner) {
-        PerChannel r = cache.get(owner);
-        if(r==null)
-            cache.put(owner,r=new PerChannel());
+    private PerChannel get(VirtualChannel owner) {
+        return cache.computeIfAbsent(owner, c -> new PerChannel());
+    }
+
+    /**
+     * Idle processes currently kept for the given channel.
+     */
+    List<MavenProcess> getIdle(VirtualChannel owner) {
+        List<MavenProcess> r = new ArrayList<>();
+        PerChannel list = cache.get(owner);
+        if (list!=null) {
+            for (ConcurrentLinkedDeque<MavenProcess> q : list.processes.values())
+                r.addAll(q);
+        }
         return r;
     }
 
@@ -204,43 +597,203 @@ public final class ProcessCache {
      * Gets or creates a new maven process for launch.
      */
     public MavenProcess get(VirtualChannel owner, BuildListener listener, Factory factory) throws InterruptedException, IOException {
-        String mavenOpts = factory.getMavenOpts();
-        MavenInstallation installation = factory.getMavenInstallation(listener);
-        JDK jdk = factory.getJava(listener);
+        Key key = new Key(factory.getMavenOpts(), factory.getMavenInstallation(listener), factory.getJava(listener));
+        FilePath workDir = factory.getWorkDir();
 
         PerChannel list = get(owner);
-        synchronized(list.processes) {
-            for (Iterator<MavenProcess> itr = list.processes.iterator(); itr.hasNext();) {
-                MavenProcess p =  itr.next();
-                if(p.matches(mavenOpts,installation,jdk)) {
-                    // reset the system property.
-                    // this also serves as the sanity check.
+        list.configure(factory.getNode());
+        MavenProcess p = takeIdle(list,listener,key,workDir);
+        if (p==null) {
+            RedirectableOutputStream out = new RedirectableOutputStream(listener.getLogger());
+            p = new MavenProcess(list,key,workDir,factory.newProcess(listener,out),out);
+        }
+        scheduleStandby(list,factory,key,workDir);
+        return p;
+    }
+
+    private MavenProcess takeIdle(PerChannel list, BuildListener listener, Key key, FilePath workDir) throws InterruptedException {
+        MavenProcess p;
+        while ((p = list.poll(key,workDir))!=null) {
+            // reset the system property.
+            // this also serves as the sanity check.
+            try {
+                p.call(new SetSystemProperties(p.systemProperties));
+            } catch (IOException e) {
+                p.discard();
+                continue;
+            }
+
+            listener.getLogger().println(Messages.ProcessCache_Reusing());
+            p.age++;
+            p.output.set(listener.getLogger());
+            return p;
+        }
+        return null;
+    }
+
+    /**
+     * Starts a process in the background if fewer than {@link #STANDBY} idle processes
+     * of this configuration are ready, so that the next build doesn't have to wait for one.
+     * Only one process per channel is started at a time; each one tops up the pool again once it's ready.
+     * See {@link Factory#newStandbyProcess(OutputStream)} for why these don't inherit the environment of the build.
+     */
+    private void scheduleStandby(final PerChannel list, final Factory factory, final Key key, final FilePath workDir) {
+        if (STANDBY<=0 || list.size.get()>=list.limits.maxProcess || list.count(key,workDir)>=STANDBY)
+            return;
+        if (!list.spawning.compareAndSet(false, true))
+            return;
+
+        Computer.threadPoolForRemoting.submit(() -> {
+            try {
+                RedirectableOutputStream out = new RedirectableOutputStream(OutputStream.nullOutputStream());
+                MavenProcess p = new MavenProcess(list,key,workDir,factory.newStandbyProcess(out),out);
+                list.offer(p);
+                LOGGER.log(Level.FINE, "Started a standby Maven process {0}", p.channel);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Failed to start a standby Maven process", e);
+                return;
+            } finally {
+                list.spawning.set(false);
+            }
+            scheduleStandby(list,factory,key,workDir);
+        });
+    }
+
+    /**
+     * Discards processes that have been idle for longer than {@link #IDLE_TIMEOUT},
+     * checks that the remaining ones still respond, and forgets about closed channels.
+     */
+    void maintain() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<VirtualChannel,PerChannel>> entries = cache.entrySet().iterator(); entries.hasNext();) {
+            Map.Entry<VirtualChannel,PerChannel> e = entries.next();
+            PerChannel list = e.getValue();
+            if (e.getKey() instanceof Channel && ((Channel) e.getKey()).isClosingOrClosed()) {
+                entries.remove();
+                for (ConcurrentLinkedDeque<MavenProcess> q : list.processes.values()) {
+                    for (MavenProcess p : q)
+                        p.discard();
+                }
+                continue;
+            }
+            for (ConcurrentLinkedDeque<MavenProcess> q : list.processes.values()) {
+                for (MavenProcess p : q) {
+                    // take it out while we talk to it, so that no build picks it up half way
+                    if (!list.remove(p))
+                        continue;
+                    if (IDLE_TIMEOUT>0 && now-p.lastUsed>IDLE_TIMEOUT*60*1000L) {
+                        LOGGER.log(Level.FINE, "Discarding Maven process {0} after it was idle for {1}ms", new Object[] {p.channel, now-p.lastUsed});
+                        p.discard();
+                        continue;
+                    }
                     try {
-                        p.call(new SetSystemProperties(p.systemProperties));
-                    } catch (IOException e) {
+                        p.channel.call(new SetSystemProperties(p.systemProperties));
+                    } catch (IOException x) {
+                        LOGGER.log(Level.FINE, "Discarding unresponsive Maven process " + p.channel, x);
                         p.discard();
-                        itr.remove();
                         continue;
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                        q.offerFirst(p);
+                        list.size.incrementAndGet();
+                        return;
                     }
-
-                    listener.getLogger().println(Messages.ProcessCache_Reusing());
-                    itr.remove();
-                    p.age++;
-                    p.output.set(listener.getLogger());
-                    return p;
+                    // it wasn't used for a build, so it goes back at the least recently used end;
+                    // putting it last would also have this loop come across it again
+                    q.offerFirst(p);
+                    list.size.incrementAndGet();
                 }
             }
         }
+    }
 
-        RedirectableOutputStream out = new RedirectableOutputStream(listener.getLogger());
-        return new MavenProcess(list,mavenOpts,installation,jdk,factory.newProcess(listener,out),out);
+    @Extension
+    public static final class Maintenance extends AsyncPeriodicWork {
+        public Maintenance() {
+            super("Maven process cache maintenance");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return MIN;
+        }
+
+        @Override
+        protected void execute(TaskListener listener) {
+            MavenBuild.mavenProcessCache.maintain();
+        }
+    }
+
+    /**
+     * @param idle
+     *      Milliseconds the process has been idle.
+     * @param age
+     *      Number of builds the process has run.
+     * @param residentSize
+     *      Resident memory of the process in bytes, 0 if unknown.
+     * @see MavenProcess#evictionCost(long, Limits)
+     */
+    static double evictionCost(long idle, int age, long residentSize, Limits limits) {
+        double wear = 1.0 + age / (double) Math.max(1, limits.maxAge);
+        double size = 1.0 + residentSize / (double) RESIDENT_SIZE_UNIT;
+        return (idle + 1) * wear * size;
     }
 
+    /**
+     * Processes this much larger than another count as twice as expensive to keep.
+     */
+    private static final long RESIDENT_SIZE_UNIT = 512L*1024*1024;
 
+    private static final long MB = 1024L*1024;
 
     @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "TODO needs triage")
     public static int MAX_AGE = 5;
 
+    /**
+     * Processes that stay well within the health limits below may run this many times {@link #MAX_AGE} builds.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int HEALTHY_AGE_FACTOR = Integer.getInteger(ProcessCache.class.getName() + ".healthyAgeFactor", 2);
+
+    /**
+     * Percentage of the maximum heap still in use after garbage collection above which a process is discarded.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int HEAP_LIMIT = Integer.getInteger(ProcessCache.class.getName() + ".heapLimit", 80);
+
+    /**
+     * Percentage of a build's time spent in garbage collection above which a process is discarded.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int GC_LIMIT = Integer.getInteger(ProcessCache.class.getName() + ".gcLimit", 20);
+
+    /**
+     * Number of threads a process may have gained since it started before it's considered leaking.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int THREAD_LEAK = Integer.getInteger(ProcessCache.class.getName() + ".threadLeak", 50);
+
+    /**
+     * Percentage by which the loaded classes may grow over what the first build loaded
+     * before the process is considered leaking class loaders.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int CLASS_GROWTH_LIMIT = Integer.getInteger(ProcessCache.class.getName() + ".classGrowthLimit", 50);
+
+    /**
+     * Number of idle processes to keep ready per Maven/JDK/MAVEN_OPTS combination on each node.
+     * 0 disables starting processes ahead of time.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int STANDBY = Integer.getInteger(ProcessCache.class.getName() + ".standby", 0);
+
+    /**
+     * Minutes an idle process is kept in the cache before it's discarded.
+     * 0 keeps idle processes forever.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_REFACTORED_TO_BE_FINAL", justification = "for script console")
+    public static int IDLE_TIMEOUT = Integer.getInteger(ProcessCache.class.getName() + ".idleTimeout", 30);
+
     static {
         String age = System.getProperty(ProcessCache.class.getName() + ".age");
         if(age!=null)
@@ -271,6 +824,160 @@ public final class ProcessCache {
         private static final long serialVersionUID = 1L;
     }
 
+    /**
+     * Resource usage of a Maven JVM at one point in time, as reported by its management beans.
+     */
+    @ExportedBean
+    public static final class Health implements Serializable {
+        private long heapUsed, heapCommitted, heapMax, liveHeap, nonHeapUsed;
+        private long gcCount, gcTime;
+        private int loadedClassCount, threadCount;
+        private long uptime, residentSize;
+
+        /**
+         * Heap in use, in bytes, including garbage not yet collected.
+         */
+        @Exported
+        public long getHeapUsed() {
+            return heapUsed;
+        }
+
+        @Exported
+        public long getHeapCommitted() {
+            return heapCommitted;
+        }
+
+        /**
+         * Maximum heap in bytes, -1 if undefined.
+         */
+        @Exported
+        public long getHeapMax() {
+            return heapMax;
+        }
+
+        /**
+         * Heap in use, in bytes, right after the most recent garbage collection of each pool.
+         */
+        @Exported
+        public long getLiveHeap() {
+            return liveHeap;
+        }
+
+        @Exported
+        public long getNonHeapUsed() {
+            return nonHeapUsed;
+        }
+
+        /**
+         * Number of garbage collections since the JVM started, over all collectors.
+         */
+        @Exported
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        /**
+         * Milliseconds spent in garbage collection since the JVM started, over all collectors.
+         */
+        @Exported
+        public long getGcTime() {
+            return gcTime;
+        }
+
+        @Exported
+        public int getLoadedClassCount() {
+            return loadedClassCount;
+        }
+
+        @Exported
+        public int getThreadCount() {
+            return threadCount;
+        }
+
+        /**
+         * Milliseconds since the JVM started.
+         */
+        @Exported
+        public long getUptime() {
+            return uptime;
+        }
+
+        /**
+         * Resident set size in bytes, approximated by the committed heap where procfs isn't available.
+         */
+        @Exported
+        public long getResidentSize() {
+            return residentSize;
+        }
+
+        int getLiveHeapPercentage() {
+            return heapMax>0 ? (int) (liveHeap*100/heapMax) : 0;
+        }
+
+        /**
+         * Share of the wall clock time spent in garbage collection since the given earlier snapshot.
+         */
+        int getGcPercentageSince(Health earlier) {
+            long wall = uptime-earlier.uptime;
+            return wall>0 ? (int) ((gcTime-earlier.gcTime)*100/wall) : 0;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class GetHealth extends MasterToSlaveCallable<Health,RuntimeException> {
+        public Health call() {
+            Health h = new Health();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            MemoryUsage heap = memory.getHeapMemoryUsage();
+            h.heapUsed = heap.getUsed();
+            h.heapCommitted = heap.getCommitted();
+            h.heapMax = heap.getMax();
+            h.nonHeapUsed = memory.getNonHeapMemoryUsage().getUsed();
+
+            // what survived the last collection is a better measure of bloat than what's in use right now
+            long live = 0;
+            boolean known = false;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                MemoryUsage u = pool.getType()==MemoryType.HEAP ? pool.getCollectionUsage() : null;
+                if (u!=null) {
+                    live += u.getUsed();
+                    known = true;
+                }
+            }
+            h.liveHeap = known ? live : h.heapUsed;
+
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                h.gcCount += Math.max(0, gc.getCollectionCount());
+                h.gcTime += Math.max(0, gc.getCollectionTime());
+            }
+            h.loadedClassCount = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+            h.threadCount = ManagementFactory.getThreadMXBean().getThreadCount();
+            h.uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            h.residentSize = getResidentSize(h.heapCommitted);
+            return h;
+        }
+
+        private static long getResidentSize(long fallback) {
+            File status = new File("/proc/self/status");
+            if (status.exists()) {
+                try (BufferedReader r = Files.newBufferedReader(status.toPath(), StandardCharsets.US_ASCII)) {
+                    String line;
+                    while ((line = r.readLine())!=null) {
+                        if (line.startsWith("VmRSS:")) {
+                            // e.g. "VmRSS:	  123456 kB"
+                            return Long.parseLong(line.substring(6).replace("kB", "").trim())*1024;
+                        }
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    // fall through
+                }
+            }
+            return fallback;
+        }
+        private static final long serialVersionUID = 1L;
+    }
+
     static class RedirectableOutputStream extends DelegatingOutputStream {
         public RedirectableOutputStream(OutputStream out) {
             super(out);
@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.maven;
+
+import hudson.Extension;
+import hudson.model.Node;
+import hudson.slaves.NodeProperty;
+import hudson.slaves.NodePropertyDescriptor;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Overrides the limits {@link ProcessCache} applies to the Maven processes it keeps on a node.
+ * Large agents with many executors typically want more cached processes than the defaults.
+ *
+ * @see ProcessCache
+ */
+public class ProcessCacheNodeProperty extends NodeProperty<Node> {
+    /**
+     * Maximum number of idle processes kept on the node. 0 disables the cache.
+     */
+    private final int maxProcesses;
+    /**
+     * Number of builds after which a process is retired, unless it is in good health.
+     */
+    private final int maxAge;
+    /**
+     * Resident memory in MB above which a process isn't kept. 0 means no limit.
+     */
+    private final int maxResidentMemory;
+
+    @DataBoundConstructor
+    public ProcessCacheNodeProperty(int maxProcesses, int maxAge, int maxResidentMemory) {
+        this.maxProcesses = Math.max(0, maxProcesses);
+        this.maxAge = Math.max(1, maxAge);
+        this.maxResidentMemory = Math.max(0, maxResidentMemory);
+    }
+
+    public int getMaxProcesses() {
+        return maxProcesses;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public int getMaxResidentMemory() {
+        return maxResidentMemory;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends NodePropertyDescriptor {
+        @Override
+        public String getDisplayName() {
+            return Messages.ProcessCacheNodeProperty_DisplayName();
+        }
+    }
+}
@@ -55,6 +55,14 @@ public abstract class AbstractMavenJavadocArchiver extends MavenReporter {
 
     public abstract String getArchiveTargetPath();
 
+    /**
+     * Only copies the javadoc the mojo wrote, which the mojos after it leave alone.
+     */
+    @Override
+    public boolean requiresSynchronousExecution() {
+        return false;
+    }
+
     public boolean postExecute(MavenBuildProxy build, MavenProject pom, MojoInfo mojo, BuildListener listener, Throwable error) throws InterruptedException, IOException {
         if (!checkIsJavadocMojo(mojo)) return true;
 
@@ -123,8 +123,8 @@ public class MavenArtifactArchiver extends MavenReporter {
                 }
             }
 
-            // record the action
-            build.execute(new MavenBuildProxyCallable(pomArtifact, mainArtifact, attachedArtifacts, repositoryUrl, repositoryId));
+            // record the action; nothing here needs to wait for it
+            build.executeAsync(new MavenBuildProxyCallable(pomArtifact, mainArtifact, attachedArtifacts, repositoryUrl, repositoryId));
         }
 
         // do we have any assembly artifacts?
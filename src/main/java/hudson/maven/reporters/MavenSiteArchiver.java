@@ -58,6 +58,14 @@ import java.util.Collections;
  */
 public class MavenSiteArchiver extends MavenReporter {
 
+    /**
+     * Only copies the site the mojo wrote, which the mojos after it leave alone.
+     */
+    @Override
+    public boolean requiresSynchronousExecution() {
+        return false;
+    }
+
     public boolean postExecute(MavenBuildProxy build, MavenProject pom, MojoInfo mojo, BuildListener listener, Throwable error) throws InterruptedException, IOException {
         if(!mojo.is("org.apache.maven.plugins","maven-site-plugin","site"))
             return true;
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.maven.reporters;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands report files of a running test mojo to a {@link Parser} as they get written,
+ * so that parsing them overlaps with the tests rather than following them.
+ *
+ * <p>
+ * There is no telling when the test plugin closes a file, so a file is taken as complete once
+ * it has gone {@link #QUIET_PERIOD} without changing. Files that fail to parse anyway, and those
+ * still changing when the watcher is stopped, are left for the scan after the mojo.
+ */
+final class ReportsWatcher implements Runnable {
+    /**
+     * Receives the report files.
+     */
+    interface Parser {
+        void parse(File report) throws IOException, InterruptedException;
+    }
+
+    private final Path dir;
+    private final WatchService watchService;
+    private final Parser parser;
+    private final ClassLoader contextClassLoader;
+    /**
+     * Report files that changed, by {@link System#nanoTime()} of their last change. Only touched by the watching thread.
+     */
+    private final Map<Path,Long> changed = new LinkedHashMap<>();
+    private volatile boolean stopped;
+    private Future<?> task;
+
+    private ReportsWatcher(Path dir, WatchService watchService, Parser parser) {
+        this.dir = dir;
+        this.watchService = watchService;
+        this.parser = parser;
+        this.contextClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    /**
+     * Starts watching the directory, creating it if the test plugin hasn't yet.
+     *
+     * @return null if the directory can't be watched.
+     */
+    static @CheckForNull ReportsWatcher start(File dir, Parser parser, ExecutorService executor) {
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs())
+                return null;
+            Path path = dir.toPath();
+            WatchService ws = path.getFileSystem().newWatchService();
+            try {
+                path.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException | RuntimeException e) {
+                ws.close();
+                throw e;
+            }
+            ReportsWatcher w = new ReportsWatcher(path, ws, parser);
+            w.task = executor.submit(w);
+            return w;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Can't watch " + dir, e);
+            return null;
+        }
+    }
+
+    public void run() {
+        Thread t = Thread.currentThread();
+        ClassLoader old = t.getContextClassLoader();
+        t.setContextClassLoader(contextClassLoader);
+        try {
+            while (!stopped) {
+                WatchKey key = watchService.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> e : key.pollEvents()) {
+                        if (e.kind() == StandardWatchEventKinds.OVERFLOW)
+                            continue;   // the scan after the mojo finds what we missed
+                        Path p = dir.resolve((Path) e.context());
+                        if (isReport(p))
+                            changed.put(p, System.nanoTime());
+                    }
+                    key.reset();
+                }
+                parseQuietFiles();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        } finally {
+            t.setContextClassLoader(old);
+        }
+    }
+
+    private void parseQuietFiles() throws InterruptedException {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Path,Long>> it = changed.entrySet().iterator(); it.hasNext() && !stopped;) {
+            Map.Entry<Path,Long> e = it.next();
+            if (now - e.getValue() < TimeUnit.MILLISECONDS.toNanos(QUIET_PERIOD))
+                continue;
+            it.remove();
+            try {
+                parser.parse(e.getKey().toFile());
+            } catch (IOException x) {
+                LOGGER.log(Level.FINE, "Leaving " + e.getKey() + " for after the mojo", x);
+            }
+        }
+    }
+
+    /**
+     * Same files {@link TestMojo} picks.
+     */
+    private static boolean isReport(Path p) {
+        String name = p.getFileName().toString();
+        return name.endsWith(".xml") && !name.equals("testng-results.xml") && !name.equals("testng-failed.xml");
+    }
+
+    /**
+     * Stops watching and waits for the file being parsed, if any.
+     */
+    void stop() throws InterruptedException {
+        stopped = true;
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Failed to watch " + dir, e.getCause());
+        } finally {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Milliseconds a report file has to go unchanged before it is parsed.
+     */
+    static long QUIET_PERIOD = 500;
+
+    private static final long POLL_INTERVAL = 100;
+
+    private static final Logger LOGGER = Logger.getLogger(ReportsWatcher.class.getName());
+}
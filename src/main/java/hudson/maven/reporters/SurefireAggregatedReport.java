@@ -34,8 +34,10 @@ import hudson.tasks.test.AggregatedTestResultAction;
 import hudson.tasks.test.TestResultProjectAction;
 import hudson.tasks.junit.CaseResult;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * {@link MavenAggregatedReport} for surefire report.
@@ -43,12 +45,42 @@ import java.util.Map;
  * @author Kohsuke Kawaguchi
  */
 public class SurefireAggregatedReport extends AggregatedTestResultAction implements MavenAggregatedReport {
+    /**
+     * Names of the modules in {@link #children}, once those and the counts are known to be complete.
+     * Null on a new or loaded instance, which has to look at every module build first.
+     */
+    private transient Set<String> childNames;
+
     SurefireAggregatedReport(MavenModuleSetBuild owner) {
         super(owner);
     }
 
+    /**
+     * Adds the tests of the module build that just finished to the running totals.
+     *
+     * <p>
+     * This is called under the lock of {@link MavenModuleSetBuild} every time a module finishes,
+     * so only the first call collects the reports of all modules; later ones only add the new one.
+     * A module built a second time within the same build would replace its earlier report,
+     * which the counts can't take back, so that rare case collects them all again.
+     * A module without a report has nothing to add: its reporters are done by the time it finishes.
+     */
     public void update(Map<MavenModule, List<MavenBuild>> moduleBuilds, MavenBuild newBuild) {
+        SurefireReport report = newBuild.getAction(SurefireReport.class);
+        if (childNames != null) {
+            if (report == null)
+                return;
+            if (childNames.add(getChildName(report))) {
+                add(report);
+                return;
+            }
+        }
+
         super.update(((MavenModuleSetBuild) owner).findModuleBuildActions(SurefireReport.class));
+        Set<String> names = new HashSet<>();
+        for (Child child : children)
+            names.add(child.name);
+        childNames = names;
     }
 
     public Class<SurefireReport> getIndividualActionType() {
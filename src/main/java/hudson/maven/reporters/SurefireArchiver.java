@@ -23,8 +23,9 @@
  */
 package hudson.maven.reporters;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.AbortException;
 import hudson.Extension;
-import hudson.Launcher;
 import hudson.maven.Maven3Builder;
 import hudson.maven.MavenBuild;
 import hudson.maven.MavenBuildInformation;
@@ -33,7 +34,6 @@ import hudson.maven.MavenBuildProxy.BuildCallable;
 import hudson.maven.MavenBuilder;
 import hudson.maven.MavenModule;
 import hudson.maven.MavenProjectActionBuilder;
-import hudson.maven.MavenReporter;
 import hudson.maven.MavenReporterDescriptor;
 import hudson.maven.MojoInfo;
 import hudson.model.Action;
@@ -41,17 +41,30 @@ import hudson.model.BuildListener;
 import hudson.model.Result;
 import hudson.tasks.junit.TestResult;
 import hudson.tasks.test.TestResultProjectAction;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
@@ -63,6 +76,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 
 /**
  * Records the surefire test result.
@@ -70,7 +84,6 @@ import com.google.common.collect.Iterators;
  * @author Christoph Kutzinski
  */
 public class SurefireArchiver extends TestFailureDetector {
-    private transient TestResult result;
     private final AtomicBoolean hasTestFailures = new AtomicBoolean();
     
     /**
@@ -78,12 +91,33 @@ public class SurefireArchiver extends TestFailureDetector {
      * if a later running MOJO specifies the same reports directory.
      */
     private transient ConcurrentMap<File, Long> parsedFiles = new ConcurrentHashMap<>();
+
+    /**
+     * Parses the reports of the test mojo running right now, if {@link #WATCH_REPORTS}.
+     */
+    private transient ReportsWatcher watcher;
+
+    /**
+     * What {@link #watcher} parsed and isn't sent to the controller yet.
+     * It goes {@link #PARSE_CHUNK_SIZE} reports at a time, as the controller rewrites the test report of the module
+     * each time it gets some.
+     */
+    private transient TestResult written;
+    private transient int writtenReports;
     
     @Override
     public boolean hasTestFailures() {
         return hasTestFailures.get();
     }
 
+    /**
+     * A failing test mojo has to be let off before Maven sees its failure.
+     */
+    @Override
+    public boolean requiresSynchronousExecution() {
+        return true;
+    }
+
     public boolean preExecute(MavenBuildProxy build, MavenProject pom, MojoInfo mojo, BuildListener listener) throws InterruptedException, IOException {
         if (isTestMojo(mojo)) {
             // tell test mojo to keep going even if there was a failure,
@@ -109,20 +143,108 @@ public class SurefireArchiver extends TestFailureDetector {
                     c.setValue(Boolean.TRUE.toString());
                 }
             }
+
+            if (WATCH_REPORTS)
+                startWatching(build, pom, mojo, listener);
         }
         return true;
     }
 
+    private void startWatching(final MavenBuildProxy build, MavenProject pom, MojoInfo mojo, final BuildListener listener) throws IOException, InterruptedException {
+        stopWatching();
+        File reportsDir;
+        try {
+            TestMojo testMojo = getTestMojo(mojo);
+            reportsDir = testMojo != null ? testMojo.getReportsDirectoryToWatch(pom, mojo) : null;
+        } catch (ComponentConfigurationException e) {
+            return; // reported by postExecute
+        }
+        if (reportsDir == null)
+            return;
+        final long buildStart = System.currentTimeMillis() - build.getMilliSecsSinceBuildStart();
+        watcher = ReportsWatcher.start(reportsDir, report -> parseWritten(build, listener, buildStart, report), PARSERS);
+    }
+
+    private void stopWatching() throws InterruptedException {
+        ReportsWatcher w = watcher;
+        watcher = null;
+        if (w != null)
+            w.stop();
+    }
+
+    /**
+     * Parses a report file the running test mojo has written.
+     */
+    private void parseWritten(MavenBuildProxy build, BuildListener listener, long buildStart, File report) throws IOException {
+        synchronized (this) {
+            long lastModified = report.lastModified();
+            Long parsed = parsedFiles.get(report);
+            if (parsed != null && parsed == lastModified)
+                return;
+            // TestResult would record a truncated file as a failing test rather than complain
+            if (!isComplete(report))
+                throw new IOException(report + " is still being written");
+            if (written == null) {
+                written = new TestResult();
+                written.setSkipOldReports(true);
+            }
+            written.parse(buildStart, Collections.singletonList(report));
+            parsedFiles.put(report, lastModified);
+            if (++writtenReports >= Math.max(1, PARSE_CHUNK_SIZE))
+                sendWritten(build, listener);
+        }
+    }
+
+    /**
+     * Whether the root element of the report is closed, that is the test plugin is done writing it.
+     */
+    static boolean isComplete(File report) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(report, "r")) {
+            long length = f.length();
+            byte[] head = new byte[(int) Math.min(length, 4096)];
+            f.readFully(head);
+            Matcher root = ROOT_ELEMENT.matcher(new String(head, StandardCharsets.ISO_8859_1));
+            if (!root.find())
+                return false;
+
+            byte[] tail = new byte[(int) Math.min(length, 256)];
+            f.seek(length - tail.length);
+            f.readFully(tail);
+            return Pattern.compile("</" + Pattern.quote(root.group(1)) + "\\s*>\\s*$")
+                    .matcher(new String(tail, StandardCharsets.ISO_8859_1)).find();
+        }
+    }
+
+    private static final Pattern ROOT_ELEMENT = Pattern.compile("<(?![?!])([^\\s/>]+)");
+
+    /**
+     * Sends what {@link #parseWritten} collected so far. Called with the lock of this reporter held.
+     */
+    private void sendWritten(MavenBuildProxy build, BuildListener listener) throws IOException {
+        TestResult result = written;
+        written = null;
+        writtenReports = 0;
+        if (result != null)
+            send(build, listener, result);
+    }
+
     public boolean postExecute(MavenBuildProxy build, MavenProject pom, MojoInfo mojo, final BuildListener listener, Throwable error) throws InterruptedException, IOException {
         TestMojo testMojo = getTestMojo(mojo);
         if (testMojo == null) return true;
 
+        // what it already parsed is skipped below
+        stopWatching();
+        synchronized (this) {
+            sendWritten(build, listener);
+        }
+
         listener.getLogger().println(Messages.SurefireArchiver_Recording());
 
         Iterable<File> fileSet;
+        long buildStart = System.currentTimeMillis() - build.getMilliSecsSinceBuildStart();
         
         try {
-            fileSet = testMojo.getReportFiles(pom, mojo);
+            fileSet = testMojo.getReportFiles(pom, mojo, buildStart);
         } catch (ComponentConfigurationException e) {
             e.printStackTrace(listener.fatalError(Messages.SurefireArchiver_NoReportsDir()));
             build.setResult(Result.FAILURE);
@@ -130,38 +252,24 @@ public class SurefireArchiver extends TestFailureDetector {
         }
         
         if(fileSet != null) {
-            synchronized (build) {
-            	
-                if(result==null)  {
-                    result = new TestResult();
-                    result.setSkipOldReports(true);
-                }
-                
+            // only guards the state of this reporter; modules built in parallel each have their own
+            synchronized (this) {
                 // filter all the already parsed files:
                 fileSet = Iterables.filter(fileSet, new SurefireArchiverPredicate(parsedFiles));
                 
-                if (!fileSet.iterator().hasNext())
-                    return true;
-
-                result.parse(System.currentTimeMillis() - build.getMilliSecsSinceBuildStart(), fileSet);
-                // TODO kutzi: the following is a 'more correct' way to get the reports associated to a mojo,
-                // but needs more testing
-//                Iterable<File> reportFilesFiltered = getFilesBetween(reportsDir, reportFiles, mojo.getStartTime(), System.currentTimeMillis());
-//                result.parse(reportFilesFiltered);
-                
-                
-                rememberCheckedFiles(fileSet);
-                
-                // final reference in order to serialize it:
-                final TestResult r = result;
-                
-                int failCount = build.execute( new SurefireArchiverBuildCallable(r, listener));
+                if (fileSet.iterator().hasNext()) {
+                    // only what this mojo added; the controller already has the rest
+                    List<File> files = Lists.newArrayList(fileSet);
+                    parseAndSend(build, listener, buildStart, files);
+
+                    rememberCheckedFiles(files);
+                }
                 
                 // if surefire plugin is going to kill maven because of a test failure,
-                // intercept that (or otherwise build will be marked as failure)
-                if(failCount>0) {
+                // intercept that (or otherwise build will be marked as failure),
+                // also when the failing reports were all parsed while the tests ran
+                if(hasTestFailures.get()) {
                     markBuildAsSuccess(error,build.getMavenBuildInformation());
-                    hasTestFailures.set(true);
                 }
             }
         }
@@ -169,6 +277,85 @@ public class SurefireArchiver extends TestFailureDetector {
         return true;
     }
 
+    /**
+     * Parses the report files and sends the outcome to the controller.
+     *
+     * <p>
+     * Many report files are split into chunks of {@link #PARSE_CHUNK_SIZE}, parsed by up to {@link #PARSER_THREADS}
+     * threads at a time. Each chunk is sent as soon as it is parsed and then let go, so that only the
+     * chunks being worked on are held in memory, however many reports there are.
+     */
+    private void parseAndSend(MavenBuildProxy build, BuildListener listener, long buildStart, List<File> files) throws IOException, InterruptedException {
+        int threads = PARSER_THREADS, chunkSize = Math.max(1, PARSE_CHUNK_SIZE);
+        if (files.size() <= chunkSize || threads <= 1) {
+            send(build, listener, parse(buildStart, files));
+            return;
+        }
+
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        CompletionService<TestResult> parsed = new ExecutorCompletionService<>(PARSERS);
+        Iterator<List<File>> chunks = Lists.partition(files, chunkSize).iterator();
+        List<Future<TestResult>> running = new ArrayList<>();
+        IOException noNewReports = null;
+        boolean anyParsed = false;
+        try {
+            while (chunks.hasNext() || !running.isEmpty()) {
+                while (chunks.hasNext() && running.size() < threads) {
+                    List<File> chunk = chunks.next();
+                    running.add(parsed.submit(() -> {
+                        Thread t = Thread.currentThread();
+                        ClassLoader old = t.getContextClassLoader();
+                        t.setContextClassLoader(cl);
+                        try {
+                            return parse(buildStart, chunk);
+                        } finally {
+                            t.setContextClassLoader(old);
+                        }
+                    }));
+                }
+                Future<TestResult> f = parsed.take();
+                running.remove(f);
+                try {
+                    send(build, listener, f.get());
+                    anyParsed = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof AbortException) {
+                        // a chunk of nothing but stale reports; only an error if all of them are
+                        if (noNewReports == null)
+                            noNewReports = (AbortException) cause;
+                    } else if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else {
+                        throw new IOException(cause);
+                    }
+                }
+            }
+        } finally {
+            for (Future<TestResult> f : running)
+                f.cancel(true);
+        }
+        if (!anyParsed && noNewReports != null)
+            throw noNewReports;
+    }
+
+    private static TestResult parse(long buildStart, List<File> files) throws IOException {
+        TestResult result = new TestResult();
+        result.setSkipOldReports(true);
+        result.parse(buildStart, files);
+        return result;
+    }
+
+    private void send(MavenBuildProxy build, BuildListener listener, TestResult result) throws IOException {
+        // the fail count is known here, so the report doesn't need to reach the controller before we go on
+        if(result.getFailCount()>0)
+            hasTestFailures.set(true);
+        build.executeAsync( new SurefireArchiverBuildCallable(result, listener));
+    }
+
+    /**
+     * Adds the suites of one test mojo to the test report of the module build.
+     */
     private static class SurefireArchiverBuildCallable implements BuildCallable<Integer, IOException> {
         private TestResult r;
         private BuildListener listener;
@@ -182,11 +369,14 @@ public class SurefireArchiver extends TestFailureDetector {
         }
 
         public Integer call(MavenBuild build) throws java.io.IOException, InterruptedException {
-            SurefireReport sr = build.getAction(SurefireReport.class);
-            if(sr==null)
-                build.getActions().add(new SurefireReport(build, r, listener));
-            else
-                sr.setResult(r,listener);
+            // asynchronous calls may run side by side on the controller
+            synchronized (build) {
+                SurefireReport sr = build.getAction(SurefireReport.class);
+                if(sr==null)
+                    build.getActions().add(new SurefireReport(build, r, listener));
+                else
+                    sr.mergeResult(r,listener);
+            }
             if(r.getFailCount()>0)
                 build.setResult(Result.UNSTABLE);
             build.registerAsProjectAction(new FactoryImpl());
@@ -207,21 +397,7 @@ public class SurefireArchiver extends TestFailureDetector {
         }
     }
 
-    @Override
-    public boolean end(MavenBuild build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
-        //Discard unneeded test result objects so they can't waste memory
-        for(MavenReporter reporter: build.getProject().getReporters()) {
-            if(reporter instanceof SurefireArchiver) {
-                SurefireArchiver surefireReporter = (SurefireArchiver) reporter;
-                if(surefireReporter.result != null) {
-                    surefireReporter.result = null;
-                }
-            }
-        }    
-        return true;
-    }
-    
-    @edu.umd.cs.findbugs.annotations.SuppressWarnings(value="ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD", justification="It's okay to write to static fields here, as each Maven build is started in its own VM")
+    @edu.umd.cs.findbugs.annotations.SuppressWarnings(value="ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD", justification="It's okay to write to static fields here, as Maven3Builder resets them before the Maven VM is reused")
     private void markBuildAsSuccess(Throwable mojoError, MavenBuildInformation buildInfo) {
         if(mojoError == null // in the success case we don't get any exception in Maven 3.0.2+; Maven < 3.0.2 returns no exception anyway
            || mojoError instanceof MojoFailureException) {
@@ -255,11 +431,6 @@ public class SurefireArchiver extends TestFailureDetector {
         }
     }
 
-//    private static Iterable<File> getFilesBetween(final File reportsDir,
-//            final String[] reportFiles, final long from, final long to) {
-//        return new FilteredReportsFileIterable(reportsDir, reportFiles, from, to);
-//    }
-    
     /**
      * Provides an {@link Iterable} view on the reports files while filtering out all files
      * which don't have a lastModified time in between from and to.
@@ -362,5 +533,32 @@ public class SurefireArchiver extends TestFailureDetector {
         }
     }
 
+    /**
+     * Whether report files are parsed while the test mojo runs, as they get written.
+     * Otherwise they are all parsed when it is done.
+     */
+    @SuppressFBWarnings(value="MS_SHOULD_BE_FINAL", justification="for script console")
+    public static boolean WATCH_REPORTS = Boolean.getBoolean(SurefireArchiver.class.getName()+".watchReports");
+
+    /**
+     * Most threads parsing report files of one test mojo at a time.
+     */
+    @SuppressFBWarnings(value="MS_SHOULD_BE_FINAL", justification="for script console")
+    public static int PARSER_THREADS = Integer.getInteger(SurefireArchiver.class.getName()+".parserThreads",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Report files parsed together by one thread. Test mojos with fewer report files are parsed on Maven's thread.
+     */
+    @SuppressFBWarnings(value="MS_SHOULD_BE_FINAL", justification="for script console")
+    public static int PARSE_CHUNK_SIZE = Integer.getInteger(SurefireArchiver.class.getName()+".parseChunkSize", 200);
+
+    /**
+     * Threads of the Maven JVM parsing report files. How many are busy at once is bounded by {@link #PARSER_THREADS}
+     * for each test mojo.
+     */
+    private static final ExecutorService PARSERS = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Maven test report parser"));
+
     private static final long serialVersionUID = 1L;
 }
@@ -1,21 +1,27 @@
 package hudson.maven.reporters;
 import edu.umd.cs.findbugs.annotations.NonNull;
-import hudson.Util;
 import hudson.maven.MojoInfo;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 
 import org.apache.maven.project.MavenProject;
-import org.apache.tools.ant.types.FileSet;
 import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
 import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
 
-import com.google.common.collect.Iterators;
-
 /**
  * Description of a mojo which can run tests.
  * 
@@ -37,7 +43,7 @@ enum TestMojo {
     MAVEN_SUREFIRE("org.apache.maven.plugins", "maven-surefire-plugin","test","reportsDirectory"),
     MAVEN_QUNIT("net.kennychua", "phantomjs-qunit-runner","test","null"){
         @Override
-        public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo)
+        public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo, long buildStart)
                 throws ComponentConfigurationException {
 
             String buildDirectory = mojo.getConfigurationValue("buildDirectory", String.class);
@@ -48,7 +54,7 @@ enum TestMojo {
 
             File junitDir = new File(buildDirectory, "junitxml");
             if (junitDir.exists()) {
-                return super.getReportFiles(junitDir, super.getFileSet(junitDir));
+                return super.getReportFiles(junitDir, buildStart);
             }
             return null;
         }
@@ -76,7 +82,7 @@ enum TestMojo {
     
     JASMINE("com.github.searls","jasmine-maven-plugin","test",null) {
         @Override
-        public Collection<File> getReportFiles(MavenProject pom,MojoInfo mojo)
+        public Collection<File> getReportFiles(MavenProject pom,MojoInfo mojo,long buildStart)
                 throws ComponentConfigurationException {
             // jasmine just creates a single JUnit result file
             File reportsDir = mojo.getConfigurationValue("jasmineTargetDir", File.class);
@@ -91,7 +97,7 @@ enum TestMojo {
     TOOLKIT_RESOLVER_PLUGIN("org.terracotta.maven.plugins", "toolkit-resolver-plugin", "toolkit-resolve-test","reportsDirectory"),
     SCALATEST_MAVEN_PLUGIN("org.scalatest", "scalatest-maven-plugin", "test", null) {
         @Override
-        public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo)
+        public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo, long buildStart)
                 throws ComponentConfigurationException {
             /* scalatest-maven-plugin has a configuration entry 'junitxml' which is a
              * comma-separated list of directories; commas may be escaped with a backslash
@@ -112,7 +118,7 @@ enum TestMojo {
                     String junitDirName = dir.trim().replaceAll("\\\\,", ",");
                     File junitDir = new File(reportsDir, junitDirName);
                     if (junitDir.exists()) {
-                        return super.getReportFiles(junitDir, super.getFileSet(junitDir));
+                        return super.getReportFiles(junitDir, buildStart);
                     }
                 }
             }
@@ -122,12 +128,12 @@ enum TestMojo {
     },
     PLAY2_MAVEN_PLUGIN("org.nanoko.playframework", "play2-maven-plugin", "test", null) {
         @Override
-        public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo)
+        public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo, long buildStart)
                 throws ComponentConfigurationException {
             /* play2-maven-plugin just run `play test` - this one dumps test reports to target/test-reports */
             File junitDir = new File(pom.getBasedir(), "target/test-reports");
             if (junitDir.exists()) {
-                return super.getReportFiles(junitDir, super.getFileSet(junitDir));
+                return super.getReportFiles(junitDir, buildStart);
             }
             return null;
         }        
@@ -167,14 +173,36 @@ enum TestMojo {
     }
     
     @CheckForNull public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo) throws ComponentConfigurationException {
+        return getReportFiles(pom, mojo, 0);
+    }
+
+    /**
+     * Returns the report files of the specified MOJO written since the build started.
+     * @param buildStart When the build started, in milliseconds since the epoch, or 0 for all report files.
+     */
+    @CheckForNull public Iterable<File> getReportFiles(MavenProject pom, MojoInfo mojo, long buildStart) throws ComponentConfigurationException {
         File reportsDir = getReportsDirectory(pom, mojo);
         if (reportsDir.exists()) {
-            return getReportFiles(reportsDir, getFileSet(reportsDir));
+            return getReportFiles(reportsDir, buildStart);
         }
         
         return null;
     }
 
+    /**
+     * Returns the directory all report files of the specified MOJO are written to,
+     * or null if this mojo finds them some other way than {@link #getReportsDirectory(MavenProject, MojoInfo)}.
+     */
+    @CheckForNull File getReportsDirectoryToWatch(MavenProject pom, MojoInfo mojo) throws ComponentConfigurationException {
+        try {
+            if (getClass().getMethod("getReportFiles", MavenProject.class, MojoInfo.class, long.class).getDeclaringClass() != TestMojo.class)
+                return null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        return getReportsDirectory(pom, mojo);
+    }
+
     /**
      * Returns the location of test reports created by the specified MOJO.
      * @param pom The project model.
@@ -198,20 +226,37 @@ enum TestMojo {
         return new File(pom.getBuild().getDirectory(), "surefire-reports");
     }
     
-    private Iterable<File> getReportFiles(final File baseDir, FileSet set) {
-        final String[] includedFiles = set.getDirectoryScanner().getIncludedFiles();
-        
-        return () -> Iterators.transform(Iterators.forArray(includedFiles),
-                                         file -> new File(baseDir,file) );
-    }
-    
     /**
-     * Returns the appropriate FileSet for the selected baseDir
-     * @param baseDir
-     * @return
+     * Returns the report files in baseDir that were written since the build started.
+     *
+     * <p>
+     * Reports of earlier builds can pile up by the thousands in a workspace that is never cleaned,
+     * so the stale ones are dropped while the directory is read instead of being handed on.
+     * The bound is the one {@link hudson.tasks.junit.TestResult#setSkipOldReports(boolean)} applies later on,
+     * so reports an earlier mojo of the same build wrote are still picked up.
      */
-    private FileSet getFileSet(File baseDir) {
-        return Util.createFileSet(baseDir, "*.xml","testng-results.xml,testng-failed.xml");
+    private Iterable<File> getReportFiles(File baseDir, long buildStart) {
+        // the same slack TestResult gives file systems that only keep modification times to a few seconds
+        long since = buildStart > 0 ? buildStart - 3000 : Long.MIN_VALUE;
+        List<File> files = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(baseDir.toPath(), "*.xml")) {
+            for (Path p : dir) {
+                String name = p.getFileName().toString();
+                if (name.equals("testng-results.xml") || name.equals("testng-failed.xml"))
+                    continue;
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue;   // deleted in the meantime
+                }
+                if (attrs.isRegularFile() && attrs.lastModifiedTime().toMillis() >= since)
+                    files.add(p.toFile());
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            LOGGER.log(Level.WARNING, "Failed to list test reports in " + baseDir, e);
+        }
+        return files;
     }
     
     protected boolean is(String artifactId, String groupId, String goal) {
@@ -324,4 +369,5 @@ enum TestMojo {
         }
     }
 
+    private static final Logger LOGGER = Logger.getLogger(TestMojo.class.getName());
 }
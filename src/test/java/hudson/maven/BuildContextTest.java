@@ -0,0 +1,44 @@
+package hudson.maven;
+
+import hudson.FilePath;
+import hudson.maven.AbstractMavenBuilder.BuildContext;
+import hudson.maven.AbstractMavenBuilder.FilterImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Calendar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * {@link FilterImpl} answering from its {@link BuildContext} instead of calling the controller.
+ */
+class BuildContextTest {
+
+    @Test
+    void constantsAreAnsweredLocally(@TempDir File ws) throws Exception {
+        Calendar timestamp = Calendar.getInstance();
+        timestamp.setTimeInMillis(1234567890L);
+        File transferArea = new File(ws, "maven-reporters");
+        MavenBuildProxy2 core = mock(MavenBuildProxy2.class);
+        FilterImpl proxy = new FilterImpl(core, mock(MavenBuildInformation.class),
+                new BuildContext(transferArea.getPath(), timestamp, true, false));
+
+        assertEquals(new FilePath(transferArea).child("build"), proxy.getRootDir());
+        assertEquals(new FilePath(transferArea).child("project"), proxy.getProjectRootDir());
+        assertEquals(new FilePath(transferArea).child("moduleset"), proxy.getModuleSetRootDir());
+        assertTrue(proxy.isArchivingDisabled());
+        assertFalse(proxy.isSiteArchivingDisabled());
+
+        // a reporter changing the calendar it got doesn't change the build's
+        proxy.getTimestamp().add(Calendar.DATE, 1);
+        assertEquals(1234567890L, proxy.getTimestamp().getTimeInMillis());
+
+        verifyNoInteractions(core);
+    }
+}
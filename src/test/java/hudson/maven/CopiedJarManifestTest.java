@@ -0,0 +1,62 @@
+package hudson.maven;
+
+import hudson.Util;
+import hudson.maven.AbstractMavenProcessFactory.CopiedJarManifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CopiedJarManifestTest {
+
+    @TempDir
+    private File dir;
+
+    @Test
+    void digestIsOnlyComputedWhenTheJarChanges() throws Exception {
+        File jar = new File(dir, "agent.jar");
+        Files.write(jar.toPath(), "one".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Util.getDigestOf(jar), CopiedJarManifest.digest(dir, "agent.jar"));
+
+        // as long as size and timestamp stay the same, the recorded digest is trusted without reading the jar
+        File manifest = new File(dir, CopiedJarManifest.FILE_NAME);
+        Properties p = load(manifest);
+        String entry = p.getProperty("agent.jar");
+        p.setProperty("agent.jar", entry.substring(0, entry.lastIndexOf(',') + 1) + "recorded");
+        try (OutputStream out = Files.newOutputStream(manifest.toPath())) {
+            p.store(out, null);
+        }
+        assertEquals("recorded", CopiedJarManifest.digest(dir, "agent.jar"));
+
+        Files.write(jar.toPath(), "three".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Util.getDigestOf(jar), CopiedJarManifest.digest(dir, "agent.jar"));
+    }
+
+    @Test
+    void movedJarIsRecorded() throws Exception {
+        File tmp = new File(dir, "agent.jar.tmp");
+        Files.write(tmp.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+        File jar = new File(dir, "agent.jar");
+        CopiedJarManifest.move(tmp, jar);
+        CopiedJarManifest.record(dir, "agent.jar", "known");
+
+        assertEquals("known", CopiedJarManifest.digest(dir, "agent.jar"));
+        assertNull(CopiedJarManifest.digest(dir, "missing.jar"));
+    }
+
+    private static Properties load(File f) throws Exception {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(f.toPath())) {
+            p.load(in);
+        }
+        return p;
+    }
+}
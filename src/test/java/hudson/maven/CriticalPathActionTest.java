@@ -0,0 +1,67 @@
+package hudson.maven;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CriticalPathActionTest {
+
+    private static final ModuleName API = new ModuleName("g", "api");
+    private static final ModuleName CORE = new ModuleName("g", "core");
+    private static final ModuleName DOCS = new ModuleName("g", "docs");
+    private static final ModuleName WEB = new ModuleName("g", "web");
+    private static final ModuleName CLI = new ModuleName("g", "cli");
+
+    @Test
+    void longestChainOfDependentModules() {
+        Map<ModuleName, Long> durations = new HashMap<>();
+        durations.put(API, 10L);
+        durations.put(CORE, 30L);
+        durations.put(DOCS, 35L);
+        durations.put(WEB, 20L);
+        durations.put(CLI, 5L);
+        Map<ModuleName, Set<ModuleName>> dependencies = new HashMap<>();
+        dependencies.put(CORE, Set.of(API));
+        dependencies.put(WEB, Set.of(CORE, API));
+        dependencies.put(CLI, Set.of(CORE, new ModuleName("junit", "junit")));
+
+        CriticalPathAction a = CriticalPathAction.compute(durations, dependencies);
+        assertEquals(List.of(API, CORE, WEB), modules(a));
+        assertEquals(60, a.getDuration());
+        assertEquals(100, a.getTotalDuration());
+        assertEquals(100.0 / 60, a.getMaxSpeedup(), 0.001);
+    }
+
+    @Test
+    void cyclesDontLoop() {
+        Map<ModuleName, Long> durations = new HashMap<>();
+        durations.put(API, 10L);
+        durations.put(CORE, 30L);
+        Map<ModuleName, Set<ModuleName>> dependencies = new HashMap<>();
+        dependencies.put(API, Set.of(CORE, API));
+        dependencies.put(CORE, Set.of(API));
+
+        CriticalPathAction a = CriticalPathAction.compute(durations, dependencies);
+        assertEquals(40, a.getDuration());
+        assertEquals(1.0, a.getMaxSpeedup(), 0.001);
+    }
+
+    @Test
+    void nothingBuilt() {
+        assertNull(CriticalPathAction.compute(new HashMap<>(), new HashMap<>()));
+    }
+
+    private static List<ModuleName> modules(CriticalPathAction a) {
+        List<ModuleName> r = new ArrayList<>();
+        for (CriticalPathAction.Step s : a.getPath())
+            r.add(ModuleName.fromString(s.getModule()));
+        return r;
+    }
+}
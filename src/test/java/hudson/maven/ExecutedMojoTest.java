@@ -1,5 +1,10 @@
 package hudson.maven;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -9,12 +14,18 @@ import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.codehaus.plexus.classworlds.realm.ClassRealm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import hudson.Util;
 import org.jvnet.hudson.test.Issue;
 
 /**
@@ -75,4 +86,65 @@ class ExecutedMojoTest {
         
         assertEquals("com.test", executedMojo.groupId);
     }
+
+    @Test
+    void digestIsComputedAgainWhenTheJarChanges(@TempDir File dir) throws Exception {
+        File jar = new File(dir, "plugin.jar");
+        Files.write(jar.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+        ExecutedMojo.DigestCache cache = new ExecutedMojo.DigestCache();
+        String first = cache.get(jar);
+        assertEquals(Util.getDigestOf(jar), first);
+
+        Files.write(jar.toPath(), "second build".getBytes(StandardCharsets.UTF_8));
+        String second = cache.get(jar);
+        assertEquals(Util.getDigestOf(jar), second);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void digestsAreSharedThroughTheLocalRepository(@TempDir File repo) throws Exception {
+        File jar = new File(repo, "plugin.jar");
+        Files.write(jar.toPath(), "aaaa".getBytes(StandardCharsets.UTF_8));
+        long lastModified = jar.lastModified();
+        ExecutedMojo.DigestCache cache = new ExecutedMojo.DigestCache();
+        String digest = cache.get(jar);
+        cache.save(repo);
+        assertTrue(new File(repo, ExecutedMojo.DigestCache.FILE_NAME).isFile());
+
+        // same size and timestamp, so a new JVM trusts the saved digest instead of reading the jar
+        Files.write(jar.toPath(), "bbbb".getBytes(StandardCharsets.UTF_8));
+        assertTrue(jar.setLastModified(lastModified));
+        ExecutedMojo.DigestCache other = new ExecutedMojo.DigestCache();
+        other.load(repo);
+        assertEquals(digest, other.get(jar));
+    }
+
+    @Test
+    void storeKeepsEveryFieldAndWritesEachStringOnce(@TempDir File dir) throws Exception {
+        List<ExecutedMojo> mojos = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            mojos.add(new ExecutedMojo("org.apache.maven.plugins", "maven-compiler-plugin", "3.13.0", "compile",
+                    i % 2 == 0 ? null : "default-compile", i, "0123456789abcdef0123456789abcdef"));
+        }
+        mojos.add(new ExecutedMojo("org.apache.maven.plugins", "maven-surefire-plugin", "3.5.2", "test", "default-test", 42, null));
+        File f = new File(dir, MavenBuild.EXECUTED_MOJOS);
+        ExecutedMojo.Store.write(mojos, f);
+        // written inline, the strings of each mojo alone would take several times this
+        assertTrue(f.length() < mojos.size() * 16L, "size " + f.length());
+
+        List<ExecutedMojo> read = ExecutedMojo.Store.read(f);
+        assertEquals(mojos.size(), read.size());
+        for (int i = 0; i < mojos.size(); i++) {
+            ExecutedMojo expected = mojos.get(i), actual = read.get(i);
+            assertEquals(expected.groupId, actual.groupId);
+            assertEquals(expected.artifactId, actual.artifactId);
+            assertEquals(expected.version, actual.version);
+            assertEquals(expected.goal, actual.goal);
+            assertEquals(expected.executionId, actual.executionId);
+            assertEquals(expected.duration, actual.duration);
+            assertEquals(expected.digest, actual.digest);
+        }
+        assertSame(read.get(0).groupId, read.get(1000).groupId);
+        assertNull(read.get(1000).digest);
+    }
 }
@@ -0,0 +1,56 @@
+package hudson.maven;
+
+import hudson.maven.MavenBuildProxy.BuildCallable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MavenOverheadActionTest {
+
+    @Test
+    void countersAreKeptPerClassMostExpensiveFirst() {
+        MavenOverheadAction a = new MavenOverheadAction();
+        a.remoteCall(new Cheap(), TimeUnit.MILLISECONDS.toNanos(1));
+        a.remoteCall(new Cheap(), TimeUnit.MILLISECONDS.toNanos(2));
+        a.remoteCall(new Costly(), TimeUnit.MILLISECONDS.toNanos(50));
+        a.remoteCall(new Cheap(), 0);
+
+        List<MavenOverheadAction.Counter> calls = a.getRemoteCalls();
+        assertEquals(2, calls.size());
+        assertEquals(Costly.class.getName(), calls.get(0).getName());
+        assertEquals(1, calls.get(0).getCount());
+        assertEquals(50, calls.get(0).getTime());
+        assertEquals(Cheap.class.getName(), calls.get(1).getName());
+        assertEquals(3, calls.get(1).getCount());
+        assertEquals(3, calls.get(1).getTime());
+    }
+
+    @Test
+    void fetchTakesTheLastCountersOnce() {
+        MavenOverheadAction a = new MavenOverheadAction();
+        a.finish(TimeUnit.SECONDS.toNanos(2), null, null);
+        MavenOverheadAction.setLast(a);
+
+        MavenOverheadAction fetched = new MavenOverheadAction.Fetch().call();
+        assertSame(a, fetched);
+        assertEquals(2000, fetched.getOverheadTime());
+        assertNull(new MavenOverheadAction.Fetch().call());
+    }
+
+    private static class Cheap implements BuildCallable<Void, RuntimeException> {
+        public Void call(MavenBuild build) {
+            return null;
+        }
+    }
+
+    private static class Costly implements BuildCallable<Void, RuntimeException> {
+        public Void call(MavenBuild build) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package hudson.maven;
+
+import hudson.maven.reporters.SurefireAggregatedReport;
+import hudson.maven.reporters.SurefireReport;
+import hudson.model.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.ExtractResourceSCM;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Modules built in parallel by Maven's multi-threaded reactor ({@code -T}).
+ */
+@WithJenkins
+class MavenParallelBuildTest {
+
+    /**
+     * Modules in maven-parallel-reactor.zip, each with one test.
+     */
+    private static final int MODULES = 24;
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void beforeEach(JenkinsRule rule) throws Exception {
+        j = rule;
+        Maven36xBuildTest.configureMaven36();
+    }
+
+    @Test
+    void eachModuleIsRecordedOnItsOwn() throws Exception {
+        MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+        m.setScm(new ExtractResourceSCM(getClass().getResource("maven-parallel-reactor.zip")));
+        m.setGoals("install -T 8 -Dmaven.compiler.target=1.8 -Dmaven.compiler.source=1.8");
+
+        // more than once, as a race doesn't necessarily show up the first time
+        for (int i = 0; i < 3; i++) {
+            MavenModuleSetBuild b = j.buildAndAssertSuccess(m);
+            Map<MavenModule, MavenBuild> builds = b.getModuleLastBuilds();
+            assertEquals(MODULES + 1, builds.size());
+
+            for (MavenBuild mb : builds.values()) {
+                String name = mb.getParent().getModuleName().toString();
+                assertEquals(Result.SUCCESS, mb.getResult(), name);
+                assertFalse(mb.getExecutedMojos().isEmpty(), name);
+                long total = 0;
+                for (ExecutedMojo mojo : mb.getExecutedMojos()) {
+                    assertTrue(mojo.duration >= 0, name + " " + mojo.goal);
+                    total += mojo.duration;
+                }
+                // mojos of other modules running at the same time don't count here
+                assertTrue(total <= mb.getDuration() + 1000, name + " took " + mb.getDuration() + "ms, its mojos " + total + "ms");
+
+                if (!name.endsWith(":root")) {
+                    SurefireReport report = mb.getAction(SurefireReport.class);
+                    assertNotNull(report, name);
+                    assertEquals(1, report.getResult().getTotalCount(), name);
+                }
+            }
+
+            // added up module by module as they finished
+            SurefireAggregatedReport aggregated = b.getAction(SurefireAggregatedReport.class);
+            assertNotNull(aggregated);
+            assertEquals(MODULES, aggregated.getTotalCount());
+            assertEquals(0, aggregated.getFailCount());
+            assertEquals(MODULES, aggregated.children.size());
+            assertEquals(b.findModuleBuildActions(SurefireReport.class).size(), aggregated.children.size());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package hudson.maven;
+
+import hudson.maven.reporters.SurefireAggregatedReport;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Result;
+import hudson.model.StringParameterDefinition;
+import jenkins.model.Jenkins;
+import jenkins.security.MasterToSlaveCallable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.ExtractResourceSCM;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reuse of the Maven JVM by aggregator style builds.
+ */
+@WithJenkins
+class ProcessCacheTest {
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void beforeEach(JenkinsRule rule) throws Exception {
+        j = rule;
+        Maven36xBuildTest.configureMaven36();
+    }
+
+    @Test
+    void aggregatorBuildReusesProcessWithoutLeakingSystemProperties() throws Exception {
+        MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+        assertTrue(m.isAggregatorStyleBuild());
+        m.setScm(new ExtractResourceSCM(getClass().getResource("maven-opts-echo.zip")));
+
+        // -D on the command line ends up as a system property of the Maven JVM
+        m.setGoals("validate -Dhudson.mavenOpt.test=leak");
+        MavenModuleSetBuild first = j.buildAndAssertSuccess(m);
+        j.assertLogContains("[hudson.mavenOpt.test=leak]", first);
+
+        m.setGoals("validate");
+        MavenModuleSetBuild second = j.buildAndAssertSuccess(m);
+        j.assertLogContains(Messages.ProcessCache_Reusing(), second);
+        j.assertLogNotContains("[hudson.mavenOpt.test=leak]", second);
+        j.assertLogContains("[hudson.mavenOpt.test=${hudson.mavenOpt.test}]", second);
+
+        // and the reset process still reports a clean result
+        MavenModuleSetBuild third = j.buildAndAssertSuccess(m);
+        j.assertLogContains(Messages.ProcessCache_Reusing(), third);
+        j.assertBuildStatus(Result.SUCCESS, third);
+    }
+
+    @Test
+    void reusedProcessCountsTheClassLoadingOfItsBuildOnly() throws Exception {
+        MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+        m.setScm(new ExtractResourceSCM(getClass().getResource("maven-opts-echo.zip")));
+        m.setGoals("validate");
+
+        MavenOverheadAction first = j.buildAndAssertSuccess(m).getAction(MavenOverheadAction.class);
+        MavenModuleSetBuild b = j.buildAndAssertSuccess(m);
+        j.assertLogContains(Messages.ProcessCache_Reusing(), b);
+        MavenOverheadAction second = b.getAction(MavenOverheadAction.class);
+
+        assertTrue(first.getClassLoadingCount() > 0);
+        // the classes the first build loaded are already there, and aren't counted again
+        assertTrue(second.getClassLoadingCount() < first.getClassLoadingCount(),
+                first.getClassLoadingCount() + " then " + second.getClassLoadingCount());
+    }
+
+    @Test
+    void healthIsRecordedOnTheBuild() throws Exception {
+        MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+        m.setScm(new ExtractResourceSCM(getClass().getResource("maven-opts-echo.zip")));
+        m.setGoals("validate");
+
+        MavenModuleSetBuild b = j.buildAndAssertSuccess(m);
+        MavenProcessHealthAction a = b.getAction(MavenProcessHealthAction.class);
+        assertNotNull(a);
+        assertTrue(a.isKept(), a.getSummary());
+        assertEquals(1, a.getBuilds());
+        assertTrue(a.getHealth().getHeapUsed() > 0);
+        assertTrue(a.getHealth().getLoadedClassCount() > 0);
+        assertTrue(a.getHealth().getThreadCount() > 0);
+
+        // and survives a reload
+        b = j.jenkins.getItemByFullName("p", MavenModuleSet.class).getBuildByNumber(1);
+        b.reload();
+        assertTrue(b.getAction(MavenProcessHealthAction.class).isKept());
+    }
+
+    @Test
+    void launchPlanIsReusedOnAgent() throws Exception {
+        MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+        m.setScm(new ExtractResourceSCM(getClass().getResource("maven-opts-echo.zip")));
+        m.setGoals("validate");
+        m.setIsProcessReuseDisabled(true);
+        m.setAssignedLabel(j.createSlave().getSelfLabel());
+
+        MavenModuleSetBuild first = j.buildAndAssertSuccess(m);
+        j.assertLogContains("Copied maven35-agent.jar", first);
+
+        // launched from the cached plan, without copying anything again
+        MavenModuleSetBuild second = j.buildAndAssertSuccess(m);
+        j.assertLogContains("maven35-agent.jar already up to date", second);
+        j.assertLogNotContains("Copied", second);
+    }
+
+    @Test
+    void reportersWorkFromPreloadedJars() throws Exception {
+        boolean preload = AbstractMavenProcessFactory.preloadReporterJars;
+        AbstractMavenProcessFactory.preloadReporterJars = true;
+        try {
+            MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+            m.setScm(new ExtractResourceSCM(getClass().getResource("maven-multimod.zip")));
+            m.setGoals("test");
+            m.setAssignedLabel(j.createSlave().getSelfLabel());
+
+            MavenModuleSetBuild b = j.buildAndAssertSuccess(m);
+            SurefireAggregatedReport report = b.getAction(SurefireAggregatedReport.class);
+            assertNotNull(report);
+            assertTrue(report.getTotalCount() > 0);
+            // whole jars are copied to each new process, so core stays out of them
+            assertFalse(AbstractMavenProcessFactory.getPreloadManifest().values().stream()
+                    .anyMatch(classes -> classes.contains(Jenkins.class)));
+        } finally {
+            AbstractMavenProcessFactory.preloadReporterJars = preload;
+        }
+    }
+
+    @Test
+    void processReuseCanBeDisabled() throws Exception {
+        MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+        m.setScm(new ExtractResourceSCM(getClass().getResource("maven-opts-echo.zip")));
+        m.setGoals("validate");
+        m.setIsProcessReuseDisabled(true);
+
+        j.buildAndAssertSuccess(m);
+        MavenModuleSetBuild second = j.buildAndAssertSuccess(m);
+        j.assertLogNotContains(Messages.ProcessCache_Reusing(), second);
+    }
+
+    @Test
+    void standbyProcessDoesNotInheritTheBuildEnvironment() throws Exception {
+        int standby = ProcessCache.STANDBY;
+        ProcessCache.STANDBY = 1;
+        try {
+            MavenModuleSet m = j.createProject(MavenModuleSet.class, "p");
+            m.setScm(new ExtractResourceSCM(getClass().getResource("maven-opts-echo.zip")));
+            m.setGoals("validate");
+            m.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition("LEAKED", "from-p")));
+            j.buildAndAssertSuccess(m);
+
+            // the process of the build is put back, and a standby one is started next to it
+            List<ProcessCache.MavenProcess> idle = MavenBuild.mavenProcessCache.getIdle(j.jenkins.getChannel());
+            for (int i = 0; idle.size() < 2 && i < 600; i++) {
+                Thread.sleep(100);
+                idle = MavenBuild.mavenProcessCache.getIdle(j.jenkins.getChannel());
+            }
+            assertEquals(2, idle.size());
+
+            Set<String> seen = new HashSet<>();
+            for (ProcessCache.MavenProcess p : idle)
+                seen.add(p.call(new GetEnv("LEAKED")));
+            assertEquals(new HashSet<>(Arrays.asList("from-p", null)), seen);
+        } finally {
+            ProcessCache.STANDBY = standby;
+        }
+    }
+
+    private static final class GetEnv extends MasterToSlaveCallable<String, RuntimeException> {
+        private final String name;
+
+        GetEnv(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String call() {
+            return System.getenv(name);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package hudson.maven;
+
+import hudson.FilePath;
+import hudson.Proc;
+import hudson.model.JDK;
+import hudson.remoting.Channel;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * How {@link ProcessCache} indexes and evicts idle processes, without launching any.
+ */
+class ProcessCacheUnitTest {
+
+    private final ProcessCache cache = new ProcessCache(2);
+    private final ProcessCache.PerChannel list = cache.new PerChannel();
+
+    private ProcessCache.MavenProcess process(ProcessCache.Key key, FilePath workDir) {
+        ProcessCache.NewProcess np = new ProcessCache.NewProcess(mock(Channel.class), mock(Proc.class));
+        return cache.new MavenProcess(list, key, workDir, np, null, new Properties(), null);
+    }
+
+    @Test
+    void keysCompareWhatToolsResolveTo() {
+        ProcessCache.Key a = new ProcessCache.Key("-Xmx1g", null, new JDK("jdk", "/opt/jdk"));
+        assertEquals(a, new ProcessCache.Key("-Xmx1g", null, new JDK("jdk", "/opt/jdk")));
+        assertEquals(a.hashCode(), new ProcessCache.Key("-Xmx1g", null, new JDK("jdk", "/opt/jdk")).hashCode());
+        assertNotEquals(a, new ProcessCache.Key("-Xmx2g", null, new JDK("jdk", "/opt/jdk")));
+        assertNotEquals(a, new ProcessCache.Key("-Xmx1g", null, new JDK("jdk", "/opt/other")));
+        assertEquals(new ProcessCache.Key(null, null, null), new ProcessCache.Key("", null, null));
+    }
+
+    @Test
+    void processesAreLookedUpByKey() {
+        ProcessCache.Key k1 = new ProcessCache.Key("-Xmx1g", null, null);
+        ProcessCache.Key k2 = new ProcessCache.Key("-Xmx2g", null, null);
+        ProcessCache.MavenProcess a = process(k1, null), b = process(k2, null);
+        list.offer(a);
+        list.offer(b);
+
+        assertEquals(1, list.count(new ProcessCache.Key("-Xmx1g", null, null), null));
+        assertNull(list.poll(new ProcessCache.Key("-Xmx3g", null, null), null));
+        assertSame(b, list.poll(new ProcessCache.Key("-Xmx2g", null, null), null));
+        assertNull(list.poll(k2, null));
+        assertSame(a, list.poll(k1, null));
+        assertEquals(0, list.count(k1, null));
+    }
+
+    @Test
+    void mostRecentlyUsedMatchingProcessIsHandedOut() {
+        ProcessCache.Key key = new ProcessCache.Key("", null, null);
+        FilePath here = new FilePath(new File("here")), there = new FilePath(new File("there"));
+        ProcessCache.MavenProcess older = process(key, here), newer = process(key, there);
+        list.offer(older);
+        list.offer(newer);
+
+        // launched elsewhere, so only good for callers that don't care
+        assertSame(older, list.poll(key, here));
+        assertNull(list.poll(key, here));
+        assertSame(newer, list.poll(key, null));
+    }
+
+    @Test
+    void longestIdleProcessIsEvictedFirst() throws Exception {
+        ProcessCache.Key k1 = new ProcessCache.Key("-Xmx1g", null, null);
+        ProcessCache.Key k2 = new ProcessCache.Key("-Xmx2g", null, null);
+        ProcessCache.MavenProcess oldest = process(k1, null);
+        Thread.sleep(50);
+        ProcessCache.MavenProcess middle = process(k2, null);
+        Thread.sleep(50);
+        ProcessCache.MavenProcess newest = process(k1, null);
+
+        list.offer(oldest);
+        list.offer(middle);
+        list.offer(newest);
+
+        verify(oldest.channel).close();
+        verify(middle.channel, never()).close();
+        verify(newest.channel, never()).close();
+        assertSame(newest, list.poll(k1, null));
+        assertNull(list.poll(k1, null));
+        assertSame(middle, list.poll(k2, null));
+    }
+
+    @Test
+    void evictionCostGrowsWithIdleTimeBuildsAndSize() {
+        ProcessCache.Limits limits = new ProcessCache.Limits(5, 5, 0);
+        double base = ProcessCache.evictionCost(1000, 0, 0, limits);
+        assertTrue(ProcessCache.evictionCost(2000, 0, 0, limits) > base);
+        assertTrue(ProcessCache.evictionCost(1000, 5, 0, limits) > base);
+        assertTrue(ProcessCache.evictionCost(1000, 0, 1024L * 1024 * 1024, limits) > base);
+
+        // a process that ran out its builds is worth as much as one idle twice as long
+        assertEquals(ProcessCache.evictionCost(2000, 0, 0, limits), ProcessCache.evictionCost(1000, 5, 0, limits), 10);
+        // but one that has been idle for long and is large still goes before a worn one used just now
+        assertTrue(ProcessCache.evictionCost(60000, 0, 1024L * 1024 * 1024, limits) > ProcessCache.evictionCost(1000, 5, 0, limits));
+    }
+}
@@ -0,0 +1,222 @@
+package hudson.maven;
+
+import hudson.maven.AbstractMavenBuilder.BatchStatistics;
+import hudson.maven.AbstractMavenBuilder.FilterImpl;
+import hudson.maven.MavenBuildProxy.BuildCallable;
+import hudson.remoting.Channel;
+import hudson.remoting.Future;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link AbstractMavenBuilder.Batch} sending the outcome of reporters at the end of a module.
+ */
+class ReporterBatchTest {
+
+    @Test
+    void runsInOrderAndReportsAllFailures() {
+        MavenBuild build = mock(MavenBuild.class);
+        List<String> ran = new ArrayList<>();
+        IOException first = new IOException("first");
+        IllegalStateException second = new IllegalStateException("second");
+
+        List<BuildCallable<?,?>> programs = new ArrayList<>();
+        programs.add(new Record(ran, "a", null));
+        programs.add(new Record(ran, "b", first));
+        programs.add(new Record(ran, "c", null));
+        programs.add(new Record(ran, "d", second));
+
+        IOException e = assertThrows(IOException.class, () -> new AbstractMavenBuilder.Batch(programs).call(build));
+        assertSame(first, e);
+        assertSame(second, e.getSuppressed()[0]);
+        assertEquals(List.of("a", "b", "c", "d"), ran);
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheModuleToEnd() throws Exception {
+        int size = AbstractMavenBuilder.BATCH_SIZE;
+        long window = AbstractMavenBuilder.BATCH_WINDOW;
+        AbstractMavenBuilder.BATCH_SIZE = 3;
+        AbstractMavenBuilder.BATCH_WINDOW = 0;
+        try {
+            Channel channel = mock(Channel.class);
+            when(channel.callAsync(any())).thenReturn(mock(Future.class));
+            FilterImpl proxy = new FilterImpl(mock(MavenBuildProxy2.class), mock(MavenBuildInformation.class), channel);
+            proxy.setFutures(new CopyOnWriteArrayList<>());
+            BatchStatistics statistics = new BatchStatistics();
+            proxy.setBatchStatistics(statistics);
+
+            for (int i = 0; i < 7; i++)
+                proxy.executeAsync(new Record(new ArrayList<>(), "r" + i, null));
+            verify(channel, timeout(5000).times(2)).callAsync(any());
+
+            // the rest goes when the module ends
+            proxy.drain();
+            verify(channel, times(3)).callAsync(any());
+            assertEquals(3, statistics.getBatches());
+            assertEquals(7, statistics.getPrograms());
+            assertEquals(3, statistics.getLargest());
+        } finally {
+            AbstractMavenBuilder.BATCH_SIZE = size;
+            AbstractMavenBuilder.BATCH_WINDOW = window;
+        }
+    }
+
+    @Test
+    void batchSentEarlyDoesNotCutTheWindowOfTheNextOneShort() throws Exception {
+        int size = AbstractMavenBuilder.BATCH_SIZE;
+        long window = AbstractMavenBuilder.BATCH_WINDOW;
+        AbstractMavenBuilder.BATCH_SIZE = 2;
+        AbstractMavenBuilder.BATCH_WINDOW = 500;
+        try {
+            Channel channel = mock(Channel.class);
+            when(channel.callAsync(any())).thenReturn(mock(Future.class));
+            FilterImpl proxy = new FilterImpl(mock(MavenBuildProxy2.class), mock(MavenBuildInformation.class), channel);
+            proxy.setFutures(new CopyOnWriteArrayList<>());
+
+            // full, so it goes right away
+            proxy.executeAsync(new Record(new ArrayList<>(), "r0", null));
+            proxy.executeAsync(new Record(new ArrayList<>(), "r1", null));
+            verify(channel, timeout(5000).times(1)).callAsync(any());
+
+            Thread.sleep(300);
+            proxy.executeAsync(new Record(new ArrayList<>(), "r2", null));
+            // past the window of the first batch, but not of this one
+            verify(channel, after(300).times(1)).callAsync(any());
+            verify(channel, timeout(5000).times(2)).callAsync(any());
+        } finally {
+            AbstractMavenBuilder.BATCH_SIZE = size;
+            AbstractMavenBuilder.BATCH_WINDOW = window;
+        }
+    }
+
+    @Test
+    void batchIsOnlySentOnceThePreviousOneIsDone() throws Exception {
+        int size = AbstractMavenBuilder.BATCH_SIZE;
+        long window = AbstractMavenBuilder.BATCH_WINDOW;
+        AbstractMavenBuilder.BATCH_SIZE = 1;
+        AbstractMavenBuilder.BATCH_WINDOW = 0;
+        try {
+            CountDownLatch done = new CountDownLatch(1);
+            Future<?> slow = mock(Future.class);
+            when(slow.get()).thenAnswer(invocation -> {
+                done.await();
+                return null;
+            });
+            Channel channel = mock(Channel.class);
+            when(channel.callAsync(any())).thenReturn((Future) slow).thenReturn(mock(Future.class));
+            FilterImpl proxy = new FilterImpl(mock(MavenBuildProxy2.class), mock(MavenBuildInformation.class), channel);
+            proxy.setFutures(new CopyOnWriteArrayList<>());
+            BatchStatistics statistics = new BatchStatistics();
+            proxy.setBatchStatistics(statistics);
+
+            proxy.executeAsync(new Record(new ArrayList<>(), "r0", null));
+            proxy.executeAsync(new Record(new ArrayList<>(), "r1", null));
+            // the controller would run both at once otherwise
+            verify(channel, after(200).times(1)).callAsync(any());
+
+            done.countDown();
+            // what the module ends with waits for everything sent before
+            proxy.drain();
+            verify(channel, times(2)).callAsync(any());
+            assertEquals(2, statistics.getBatches());
+        } finally {
+            AbstractMavenBuilder.BATCH_SIZE = size;
+            AbstractMavenBuilder.BATCH_WINDOW = window;
+        }
+    }
+
+    @Test
+    void roundTripOfABatchIsSharedByItsPrograms() throws Exception {
+        int size = AbstractMavenBuilder.BATCH_SIZE;
+        long window = AbstractMavenBuilder.BATCH_WINDOW;
+        AbstractMavenBuilder.BATCH_SIZE = 2;
+        AbstractMavenBuilder.BATCH_WINDOW = 0;
+        try {
+            Future<?> slow = mock(Future.class);
+            when(slow.get()).thenAnswer(invocation -> {
+                Thread.sleep(100);
+                return null;
+            });
+            Channel channel = mock(Channel.class);
+            when(channel.callAsync(any())).thenReturn((Future) slow);
+            FilterImpl proxy = new FilterImpl(mock(MavenBuildProxy2.class), mock(MavenBuildInformation.class), channel);
+            proxy.setFutures(new CopyOnWriteArrayList<>());
+            MavenOverheadAction overhead = new MavenOverheadAction();
+            proxy.setOverhead(overhead);
+
+            proxy.executeAsync(new Record(new ArrayList<>(), "r0", null));
+            proxy.executeAsync(new Record(new ArrayList<>(), "r1", null));
+            proxy.drain();
+
+            MavenOverheadAction.Counter calls = overhead.getRemoteCalls().get(0);
+            assertEquals(Record.class.getName(), calls.getName());
+            assertEquals(2, calls.getCount());
+            assertTrue(calls.getTime() >= 90, calls.getTime() + "ms");
+        } finally {
+            AbstractMavenBuilder.BATCH_SIZE = size;
+            AbstractMavenBuilder.BATCH_WINDOW = window;
+        }
+    }
+
+    @Test
+    void failureToSendIsLeftForTheBuildLog() throws Exception {
+        long window = AbstractMavenBuilder.BATCH_WINDOW;
+        AbstractMavenBuilder.BATCH_WINDOW = 0;
+        try {
+            Channel channel = mock(Channel.class);
+            IOException broken = new IOException("channel closed");
+            when(channel.callAsync(any())).thenThrow(broken);
+            FilterImpl proxy = new FilterImpl(mock(MavenBuildProxy2.class), mock(MavenBuildInformation.class), channel);
+            List<Future<?>> futures = new CopyOnWriteArrayList<>();
+            proxy.setFutures(futures);
+
+            proxy.executeAsync(new Record(new ArrayList<>(), "r", null));
+            proxy.drain();
+
+            // waitForAsynchronousExecutions reports what these throw
+            assertEquals(1, futures.size());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> futures.get(0).get());
+            assertSame(broken, e.getCause());
+        } finally {
+            AbstractMavenBuilder.BATCH_WINDOW = window;
+        }
+    }
+
+    private static final class Record implements BuildCallable<Void,Exception> {
+        private final transient List<String> ran;
+        private final String name;
+        private final transient Exception failure;
+
+        Record(List<String> ran, String name, Exception failure) {
+            this.ran = ran;
+            this.name = name;
+            this.failure = failure;
+        }
+
+        public Void call(MavenBuild build) throws Exception {
+            ran.add(name);
+            if (failure != null)
+                throw failure;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package hudson.maven;
+
+import hudson.maven.AbstractMavenBuilder.ReporterQueue;
+import hudson.maven.reporters.MavenFingerprinter;
+import hudson.maven.reporters.MavenJavadocArchiver;
+import hudson.maven.reporters.MavenSiteArchiver;
+import hudson.maven.reporters.SurefireArchiver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReporterQueueTest {
+
+    @Test
+    void callbacksRunInOrderOffTheCallingThread() throws Exception {
+        ReporterQueue q = new ReporterQueue();
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+
+        q.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(Thread.currentThread() != caller);
+            ran.add(0);
+        });
+        for (int i = 1; i < 100; i++) {
+            int n = i;
+            q.submit(() -> ran.add(n));
+        }
+        // the caller got here while the first callback is still blocked
+        assertTrue(ran.isEmpty());
+
+        release.countDown();
+        assertTrue(q.drain().isEmpty());
+        assertEquals(100, ran.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, ran.get(i));
+    }
+
+    @Test
+    void failuresAreReportedAndDontStopTheQueue() throws Exception {
+        ReporterQueue q = new ReporterQueue();
+        RuntimeException failure = new IllegalStateException("reporter bug");
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        q.submit(() -> {
+            throw failure;
+        });
+        q.submit(() -> ran.add("after"));
+
+        List<Throwable> failures = q.drain();
+        assertEquals(1, failures.size());
+        assertSame(failure, failures.get(0));
+        assertEquals(List.of("after"), ran);
+        // reported only once
+        assertTrue(q.drain().isEmpty());
+    }
+
+    @Test
+    void onlyReportersThatOptInAreQueued() {
+        // written before postExecute could run off the build thread
+        assertTrue(new MavenReporter() {}.requiresSynchronousExecution());
+        assertTrue(new MavenFingerprinter().requiresSynchronousExecution());
+        assertTrue(new SurefireArchiver().requiresSynchronousExecution());
+
+        assertFalse(new MavenSiteArchiver().requiresSynchronousExecution());
+        assertFalse(new MavenJavadocArchiver().requiresSynchronousExecution());
+    }
+}
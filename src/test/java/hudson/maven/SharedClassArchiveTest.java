@@ -0,0 +1,88 @@
+package hudson.maven;
+
+import hudson.maven.AbstractMavenProcessFactory.SharedClassArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SharedClassArchiveTest {
+
+    @TempDir
+    private File tmp;
+
+    private File jdk;
+    private File mvn;
+    private File jar;
+    private File dir;
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        jdk = new File(tmp, "jdk");
+        mvn = new File(tmp, "mvn");
+        dir = new File(tmp, SharedClassArchive.DIR_NAME);
+        jar = new File(tmp, "maven35-agent.jar");
+        Files.createDirectories(jdk.toPath());
+        Files.createDirectories(new File(mvn, "lib").toPath());
+        Files.write(new File(mvn, "lib/maven-core.jar").toPath(), "core".getBytes(StandardCharsets.UTF_8));
+        Files.write(jar.toPath(), "agent".getBytes(StandardCharsets.UTF_8));
+        release("17.0.2");
+    }
+
+    @Test
+    void archiveIsWrittenOnceThenUsed() throws Exception {
+        String written = option(invoke(), "-XX:ArchiveClassesAtExit=");
+
+        // a process launched while the first one is still running doesn't write it again
+        assertEquals(Collections.emptyList(), invoke());
+
+        Files.write(new File(written).toPath(), new byte[1]);
+        assertEquals(written, option(invoke(), "-XX:SharedArchiveFile="));
+    }
+
+    @Test
+    void archiveIsRewrittenWhenAJarChanges() throws Exception {
+        String first = option(invoke(), "-XX:ArchiveClassesAtExit=");
+        Files.write(new File(first).toPath(), new byte[1]);
+
+        Files.write(jar.toPath(), "updated agent".getBytes(StandardCharsets.UTF_8));
+        String second = option(invoke(), "-XX:ArchiveClassesAtExit=");
+        assertNotEquals(first, second);
+        assertFalse(new File(first).exists());
+    }
+
+    @Test
+    void olderJavaIsLeftAlone() throws Exception {
+        release("11.0.12");
+        assertEquals(Collections.emptyList(), invoke());
+        assertEquals(8, SharedClassArchive.featureVersion("1.8.0_292"));
+        assertEquals(21, SharedClassArchive.featureVersion("21"));
+        assertEquals(0, SharedClassArchive.featureVersion("unknown"));
+    }
+
+    private List<String> invoke() throws Exception {
+        return new SharedClassArchive(jdk.getPath(), mvn.getPath(), List.of(jar.getPath())).invoke(dir, null);
+    }
+
+    private void release(String version) throws Exception {
+        Files.write(new File(jdk, "release").toPath(), ("JAVA_VERSION=\"" + version + "\"\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String option(List<String> options, String prefix) {
+        for (String o : options) {
+            if (o.startsWith(prefix))
+                return o.substring(prefix.length());
+        }
+        return fail(prefix + " missing from " + options);
+    }
+}
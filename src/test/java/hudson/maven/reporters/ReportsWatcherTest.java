@@ -0,0 +1,48 @@
+package hudson.maven.reporters;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ReportsWatcherTest {
+
+    @Test
+    void reportsAreHandedOverOnceTheyStopChanging(@TempDir File tmp) throws Exception {
+        File reportsDir = new File(tmp, "surefire-reports"); // not created by the test plugin yet
+        List<File> parsed = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        long quietPeriod = ReportsWatcher.QUIET_PERIOD;
+        ReportsWatcher.QUIET_PERIOD = 50;
+        try {
+            ReportsWatcher watcher = ReportsWatcher.start(reportsDir, parsed::add, executor);
+            assertNotNull(watcher);
+
+            File report = new File(reportsDir, "TEST-FooTest.xml");
+            Files.writeString(report.toPath(), "<testsuite name='FooTest'/>");
+            Files.writeString(new File(reportsDir, "testng-results.xml").toPath(), "<testng-results/>");
+            Files.writeString(new File(reportsDir, "FooTest.txt").toPath(), "Tests run: 0");
+
+            // some platforms poll for changes every few seconds
+            for (int i = 0; i < 300 && parsed.isEmpty(); i++)
+                Thread.sleep(100);
+            watcher.stop();
+
+            // a late change event may hand the same file over again, which the archiver skips
+            assertEquals(Set.of(report), new HashSet<>(parsed));
+        } finally {
+            ReportsWatcher.QUIET_PERIOD = quietPeriod;
+            executor.shutdownNow();
+        }
+    }
+}
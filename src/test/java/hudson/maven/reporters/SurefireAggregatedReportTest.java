@@ -0,0 +1,94 @@
+package hudson.maven.reporters;
+
+import hudson.maven.MavenBuild;
+import hudson.maven.MavenModuleSetBuild;
+import hudson.tasks.test.AbstractTestResultAction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How {@link SurefireAggregatedReport} keeps its totals as modules finish one by one.
+ */
+class SurefireAggregatedReportTest {
+
+    private final MavenModuleSetBuild owner = mock(MavenModuleSetBuild.class);
+    /**
+     * The reports the module builds have right now, as {@link MavenModuleSetBuild#findModuleBuildActions(Class)} finds them.
+     */
+    private final List<SurefireReport> reports = new ArrayList<>();
+    private final Map<AbstractTestResultAction, String> names = new HashMap<>();
+    private final SurefireAggregatedReport aggregated = new SurefireAggregatedReport(owner) {
+        @Override
+        protected String getChildName(AbstractTestResultAction tr) {
+            return names.get(tr);
+        }
+    };
+
+    SurefireAggregatedReportTest() {
+        when(owner.findModuleBuildActions(SurefireReport.class)).thenReturn(reports);
+    }
+
+    private MavenBuild build(String module, int tests, int failures) {
+        MavenBuild build = mock(MavenBuild.class);
+        if (tests > 0) {
+            SurefireReport report = mock(SurefireReport.class);
+            report.run = build;
+            when(report.getTotalCount()).thenReturn(tests);
+            when(report.getFailCount()).thenReturn(failures);
+            when(build.getAction(SurefireReport.class)).thenReturn(report);
+            names.put(report, module);
+        }
+        return build;
+    }
+
+    private MavenBuild finish(String module, int tests, int failures) {
+        MavenBuild build = build(module, tests, failures);
+        SurefireReport report = build.getAction(SurefireReport.class);
+        if (report != null) {
+            reports.removeIf(r -> names.get(r).equals(module));
+            reports.add(report);
+        }
+        aggregated.update(null, build);
+        return build;
+    }
+
+    @Test
+    void moduleBuiltTwiceReplacesItsEarlierReport() {
+        finish("a", 3, 1);
+        finish("b", 5, 0);
+        assertEquals(8, aggregated.getTotalCount());
+
+        // the counts of its first build must go rather than add up
+        finish("a", 4, 0);
+        assertEquals(9, aggregated.getTotalCount());
+        assertEquals(0, aggregated.getFailCount());
+        assertEquals(2, aggregated.children.size());
+
+        finish("c", 1, 1);
+        assertEquals(10, aggregated.getTotalCount());
+        assertEquals(1, aggregated.getFailCount());
+        assertEquals(3, aggregated.children.size());
+    }
+
+    @Test
+    void moduleWithoutTestsLeavesTheCountsAlone() {
+        finish("a", 3, 0);
+        finish("parent", 0, 0);
+        finish("b", 5, 1);
+        assertEquals(8, aggregated.getTotalCount());
+        assertEquals(1, aggregated.getFailCount());
+        assertEquals(2, aggregated.children.size());
+        // only the first module looked at all of them
+        verify(owner, times(1)).findModuleBuildActions(SurefireReport.class);
+    }
+}
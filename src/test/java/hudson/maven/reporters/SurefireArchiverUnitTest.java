@@ -8,9 +8,11 @@ import static org.mockito.Mockito.when;
 import hudson.FilePath;
 import hudson.console.ConsoleNote;
 import hudson.maven.ExecutedMojo;
+import hudson.maven.Maven3Builder;
 import hudson.maven.MavenBuild;
 import hudson.maven.MavenBuildInformation;
 import hudson.maven.MavenBuildProxy;
+import hudson.maven.MavenBuilder;
 import hudson.maven.MavenProjectActionBuilder;
 import hudson.maven.MavenReporter;
 import hudson.maven.MojoInfo;
@@ -25,21 +27,27 @@ import io.jenkins.plugins.junit.storage.JunitTestResultStorage;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.Serial;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.io.output.NullOutputStream;
+import org.apache.maven.plugin.MojoFailureException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.RandomlyFails;
@@ -264,10 +272,153 @@ class SurefireArchiverUnitTest {
         }
     }
 
+    @Test
+    void bytesSentGrowWithNewSuitesOnly(@TempDir File reportsDir) throws Exception {
+        doReturn(reportsDir).when(this.mojoInfo).getConfigurationValue("reportsDirectory", File.class);
+        int mojos = 30, tests = 40;
+        for (int i = 0; i < mojos; i++) {
+            writeSuite(reportsDir, "Suite" + i, tests);
+            this.archiver.postExecute(buildProxy, null, this.mojoInfo, new NullBuildListener(), null);
+        }
+
+        assertEquals(mojos * tests, this.build.getAction(SurefireReport.class).getResult().getTotalCount());
+        assertEquals(mojos, buildProxy.bytesSent.size());
+        // each mojo sends its one suite; resending earlier ones would make the last call about 30 times the first
+        long first = buildProxy.bytesSent.get(0), last = buildProxy.bytesSent.get(mojos - 1);
+        assertTrue(last < first * 2, "first call sent " + first + " bytes, last " + last);
+    }
+
+    @Test
+    void manyReportsAreParsedInChunks(@TempDir File reportsDir) throws Exception {
+        doReturn(reportsDir).when(this.mojoInfo).getConfigurationValue("reportsDirectory", File.class);
+        int chunkSize = SurefireArchiver.PARSE_CHUNK_SIZE, threads = SurefireArchiver.PARSER_THREADS;
+        SurefireArchiver.PARSE_CHUNK_SIZE = 3;
+        SurefireArchiver.PARSER_THREADS = 4;
+        try {
+            for (int i = 0; i < 25; i++)
+                writeSuite(reportsDir, "Suite" + i, 7);
+            // left over from an earlier build; these must neither be counted nor fail the mojo
+            for (int i = 0; i < 8; i++) {
+                writeSuite(reportsDir, "Stale" + i, 7);
+                Files.setLastModifiedTime(new File(reportsDir, "TEST-Stale" + i + ".xml").toPath(),
+                        FileTime.from(this.mojoInfo.getStartTime() - 60000, TimeUnit.MILLISECONDS));
+            }
+
+            this.archiver.postExecute(buildProxy, null, this.mojoInfo, new NullBuildListener(), null);
+        } finally {
+            SurefireArchiver.PARSE_CHUNK_SIZE = chunkSize;
+            SurefireArchiver.PARSER_THREADS = threads;
+        }
+
+        assertEquals(25 * 7, this.build.getAction(SurefireReport.class).getResult().getTotalCount());
+        assertTrue(buildProxy.bytesSent.size() >= 9, "sent " + buildProxy.bytesSent.size() + " times");
+    }
+
+    @Test
+    void reportsWrittenWhileTestsRunAreSentInChunks(@TempDir File reportsDir) throws Exception {
+        doReturn(reportsDir).when(this.mojoInfo).getConfigurationValue("reportsDirectory", File.class);
+        boolean watch = SurefireArchiver.WATCH_REPORTS;
+        int chunkSize = SurefireArchiver.PARSE_CHUNK_SIZE;
+        SurefireArchiver.WATCH_REPORTS = true;
+        SurefireArchiver.PARSE_CHUNK_SIZE = 3;
+        try {
+            this.archiver.preExecute(buildProxy, null, this.mojoInfo, new NullBuildListener());
+            for (int i = 0; i < 7; i++)
+                writeSuite(reportsDir, "Suite" + i, 5);
+            // two full chunks go while the tests still run
+            long deadline = System.currentTimeMillis() + 30000;
+            while (buildProxy.bytesSent.size() < 2 && System.currentTimeMillis() < deadline)
+                Thread.sleep(100);
+            assertEquals(2, buildProxy.bytesSent.size());
+
+            this.archiver.postExecute(buildProxy, null, this.mojoInfo, new NullBuildListener(), null);
+        } finally {
+            SurefireArchiver.WATCH_REPORTS = watch;
+            SurefireArchiver.PARSE_CHUNK_SIZE = chunkSize;
+        }
+
+        // and the rest when it ends, rather than one call per report
+        assertEquals(3, buildProxy.bytesSent.size());
+        assertEquals(7 * 5, this.build.getAction(SurefireReport.class).getResult().getTotalCount());
+    }
+
+    @Test
+    void reportWrittenInTwoStepsIsParsedOnceComplete(@TempDir File reportsDir) throws Exception {
+        doReturn(reportsDir).when(this.mojoInfo).getConfigurationValue("reportsDirectory", File.class);
+        boolean watch = SurefireArchiver.WATCH_REPORTS;
+        SurefireArchiver.WATCH_REPORTS = true;
+        try {
+            this.archiver.preExecute(buildProxy, null, this.mojoInfo, new NullBuildListener());
+            File f = new File(reportsDir, "TEST-Slow.xml");
+            Files.writeString(f.toPath(), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<testsuite name=\"Slow\" tests=\"2\" failures=\"0\" errors=\"0\" skipped=\"0\" time=\"1\">\n"
+                    + "  <testcase classname=\"Slow\" name=\"test0\" time=\"0.01\"/>\n");
+            assertFalse(SurefireArchiver.isComplete(f));
+            // long enough for the watcher to take the half written file as done
+            Thread.sleep(ReportsWatcher.QUIET_PERIOD * 3);
+            Files.writeString(f.toPath(), "  <testcase classname=\"Slow\" name=\"test1\" time=\"0.01\"/>\n</testsuite>\n",
+                    StandardOpenOption.APPEND);
+            assertTrue(SurefireArchiver.isComplete(f));
+
+            this.archiver.postExecute(buildProxy, null, this.mojoInfo, new NullBuildListener(), null);
+        } finally {
+            SurefireArchiver.WATCH_REPORTS = watch;
+        }
+
+        // neither a failure to read the first half nor the suite twice
+        TestResult result = this.build.getAction(SurefireReport.class).getResult();
+        assertEquals(2, result.getTotalCount());
+        assertEquals(0, result.getFailCount());
+        assertFalse(this.archiver.hasTestFailures());
+    }
+
+    @Test
+    void testFailuresParsedWhileTestsRanDoNotFailTheBuild(@TempDir File reportsDir) throws Exception {
+        doReturn(reportsDir).when(this.mojoInfo).getConfigurationValue("reportsDirectory", File.class);
+        File f = new File(reportsDir, "TEST-Failing.xml");
+        Files.writeString(f.toPath(), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<testsuite name=\"Failing\" tests=\"1\" failures=\"1\" errors=\"0\" skipped=\"0\" time=\"1\">\n"
+                + "  <testcase classname=\"Failing\" name=\"test\" time=\"0.01\"><failure message=\"boom\"/></testcase>\n"
+                + "</testsuite>\n");
+        Files.setLastModifiedTime(f.toPath(), FileTime.from(this.mojoInfo.getStartTime() + 5000, TimeUnit.MILLISECONDS));
+        try {
+            this.archiver.postExecute(buildProxy, null, this.mojoInfo, new NullBuildListener(), new MojoFailureException("tests failed"));
+            assertTrue(Maven3Builder.markAsSuccess);
+
+            // as if the report had been parsed while the tests ran, leaving nothing new for the end of the mojo
+            Maven3Builder.markAsSuccess = false;
+            MavenBuilder.markAsSuccess = false;
+            this.archiver.postExecute(buildProxy, null, this.mojoInfo, new NullBuildListener(), new MojoFailureException("tests failed"));
+            assertTrue(Maven3Builder.markAsSuccess);
+            assertTrue(MavenBuilder.markAsSuccess);
+        } finally {
+            Maven3Builder.markAsSuccess = false;
+            MavenBuilder.markAsSuccess = false;
+        }
+    }
+
+    private void writeSuite(File reportsDir, String name, int tests) throws Exception {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<testsuite name=\"").append(name).append("\" tests=\"").append(tests)
+                .append("\" failures=\"0\" errors=\"0\" skipped=\"0\" time=\"1\">\n");
+        for (int i = 0; i < tests; i++)
+            xml.append("  <testcase classname=\"").append(name).append("\" name=\"test").append(i).append("\" time=\"0.01\"/>\n");
+        xml.append("</testsuite>\n");
+        File f = new File(reportsDir, "TEST-" + name + ".xml");
+        Files.writeString(f.toPath(), xml);
+        Files.setLastModifiedTime(f.toPath(), FileTime.from(this.mojoInfo.getStartTime() + 5000, TimeUnit.MILLISECONDS));
+    }
+
     private static class TestBuildProxy implements MavenBuildProxy {
 
         private final MavenBuild build;
 
+        /**
+         * Serialized size of each program passed to {@link #executeAsync(BuildCallable)},
+         * which is what would go over the channel.
+         */
+        final List<Long> bytesSent = new CopyOnWriteArrayList<>();
+
         public TestBuildProxy(MavenBuild build) {
             this.build = build;
         }
@@ -281,6 +432,11 @@ class SurefireArchiverUnitTest {
         @Override
         public void executeAsync(BuildCallable<?, ?> program)
                 throws IOException {
+            CountingOutputStream bytes = new CountingOutputStream(NullOutputStream.INSTANCE);
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(program);
+            }
+            bytesSent.add(bytes.getByteCount());
             try {
                 program.call(this.build);
             } catch(Throwable e) {
@@ -9,6 +9,13 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.model.Build;
 import org.apache.maven.project.MavenProject;
@@ -274,4 +281,44 @@ class TestMojoTest {
         }
     }
 
+    @Test
+    void testGetReportFilesSkipsReportsOfEarlierBuilds() throws Exception {
+        File reportsDir = hudson.Util.createTempDir();
+        try {
+            long buildStart = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+            FileTime stale = FileTime.fromMillis(buildStart - TimeUnit.HOURS.toMillis(1));
+            byte[] report = "this is a fake surefire reports output file".getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < 300; i++) {
+                Path old = Files.write(reportsDir.toPath().resolve("TEST-old.Test" + i + ".xml"), report);
+                Files.setLastModifiedTime(old, stale);
+            }
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < 3; i++) {
+                String name = "TEST-new.Test" + i + ".xml";
+                Files.write(reportsDir.toPath().resolve(name), report);
+                expected.add(name);
+            }
+            // an earlier test mojo of the same build wrote to the same directory
+            Path earlier = Files.write(reportsDir.toPath().resolve("TEST-earlier.Test.xml"), report);
+            Files.setLastModifiedTime(earlier, FileTime.fromMillis(buildStart + 10000));
+            expected.add("TEST-earlier.Test.xml");
+            Files.write(reportsDir.toPath().resolve("testng-results.xml"), report);
+
+            MojoInfo mojoInfo = MojoInfoBuilder.mojoBuilder("org.apache.maven.plugins", "maven-surefire-plugin", "test")
+                    .configValue("reportsDirectory", reportsDir.getPath())
+                    .build();
+            MavenProject pom = mock(MavenProject.class);
+            when(pom.getBasedir()).thenReturn(reportsDir);
+
+            Iterable<File> files = TestMojo.MAVEN_SUREFIRE.getReportFiles(pom, mojoInfo, buildStart);
+            Set<String> found = new HashSet<>();
+            for (File file : files) {
+                found.add(file.getName());
+            }
+            assertEquals(expected, found);
+        } finally {
+            hudson.Util.deleteRecursive(reportsDir);
+        }
+    }
+
 }